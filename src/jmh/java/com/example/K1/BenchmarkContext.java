@@ -0,0 +1,42 @@
+package com.example.K1;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+// Minimal Spring context wiring the components under benchmark to an embedded database
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    static AnnotationConfigApplicationContext create(DataSource dataSource, Class<?>... components) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.registerBean(DataSource.class, () -> dataSource);
+        context.registerBean(JdbcTemplate.class, () -> new JdbcTemplate(dataSource));
+        context.registerBean(TransactionTemplate.class, () -> new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+        context.registerBean(MeterRegistry.class, SimpleMeterRegistry::new);
+        context.register(SqlMetrics.class);
+        context.register(components);
+        context.refresh();
+        return context;
+    }
+
+    // Embedded database named after the benchmark, seeded with rows Routine rows
+    static DataSource seeded(String name, int rows) {
+        DataSource dataSource = SyntheticFlightData.embeddedDatabase(name + rows);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        Integer existing = jdbc.queryForObject("SELECT COUNT(*) FROM Routine", Integer.class);
+        if (existing == null || existing == 0) {
+            SyntheticFlightData data = new SyntheticFlightData(42, 2000, 3 * 365);
+            data.seedEmployees(jdbc);
+            data.seedRoutines(jdbc, rows);
+        }
+        return dataSource;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.K1;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+// Full-table Admin export through RoutineExcelExporter into a discarding stream
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ExcelExportBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private AnnotationConfigApplicationContext context;
+    private RoutineExcelExporter exporter;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkContext.create(BenchmarkContext.seeded("export", rows), RoutineExcelExporter.class);
+        exporter = context.getBean(RoutineExcelExporter.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long export() throws IOException {
+        return exporter.export(null, OutputStream.nullOutputStream());
+    }
+}
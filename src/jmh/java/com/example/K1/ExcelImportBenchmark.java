@@ -0,0 +1,67 @@
+package com.example.K1;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// SAX parse + batched insert of an uploaded sheet through RoutineExcelImporter
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ExcelImportBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private Path workbook;
+    private JdbcTemplate jdbc;
+    private AnnotationConfigApplicationContext context;
+    private RoutineExcelImporter importer;
+
+    @Setup
+    public void setup() throws IOException {
+        workbook = new SyntheticFlightData(7, 2000, 365).writeWorkbook(rows);
+        DataSource dataSource = SyntheticFlightData.embeddedDatabase("import" + rows);
+        jdbc = new JdbcTemplate(dataSource);
+        context = BenchmarkContext.create(dataSource, RoutineExcelImporter.class);
+        importer = context.getBean(RoutineExcelImporter.class);
+    }
+
+    // every measured import starts from an empty table
+    @Setup(Level.Invocation)
+    public void emptyTable() {
+        jdbc.update("DELETE FROM Routine");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        Files.deleteIfExists(workbook);
+    }
+
+    @Benchmark
+    public long importWorkbook() throws IOException {
+        return importer.importWorkbook(workbook).successCount();
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.K1;
+
+// The regex/split/valueOf conversions RoutineValues replaced, kept as the benchmark baseline
+final class LegacyTimeParsing {
+
+    private LegacyTimeParsing() {
+    }
+
+    static String normalizeTime(String time) {
+        if (time == null || time.isEmpty()) return "";
+        if (time.matches("\\d{2}:\\d{2}:\\d{2}")) return time;
+        String[] parts = time.split(":");
+        if (parts.length == 3) {
+            String h = parts[0].length() == 1 ? "0" + parts[0] : parts[0];
+            String m = parts[1].length() == 1 ? "0" + parts[1] : parts[1];
+            String s = parts[2].length() == 1 ? "0" + parts[2] : parts[2];
+            return h + ":" + m + ":" + s;
+        }
+        if (parts.length == 2) {
+            String h = parts[0].length() == 1 ? "0" + parts[0] : parts[0];
+            String m = parts[1].length() == 1 ? "0" + parts[1] : parts[1];
+            return h + ":" + m + ":00";
+        }
+        if (parts.length == 1) {
+            String h = parts[0].length() == 1 ? "0" + parts[0] : parts[0];
+            return h + ":00:00";
+        }
+        return time;
+    }
+
+    static java.sql.Date parseDate(String dateStr) {
+        try {
+            return java.sql.Date.valueOf(dateStr.trim());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    static java.sql.Time parseTime(String timeStr) {
+        try {
+            return java.sql.Time.valueOf(normalizeTime(timeStr.trim()));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
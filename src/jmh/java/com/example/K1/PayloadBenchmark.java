@@ -0,0 +1,70 @@
+package com.example.K1;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// GET /api/routine body: one object per row vs format=compact. Setup prints the payload sizes, raw and gzipped.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PayloadBenchmark {
+
+    @Param({"1000", "20000", "100000"})
+    public int rows;
+
+    private ObjectMapper mapper;
+    private List<Routine> routines;
+
+    @Setup
+    public void setup() throws IOException {
+        mapper = new ObjectMapper().registerModule(new BlackbirdModule());
+        SyntheticFlightData data = new SyntheticFlightData(42, 2000, 90);
+        routines = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            routines.add(data.nextRoutine());
+        }
+        byte[] objects = objectPerRow();
+        byte[] compact = compact();
+        System.out.printf("%n%d rows: object per row %,d bytes (gzip %,d), compact %,d bytes (gzip %,d)%n",
+                rows, objects.length, gzip(objects), compact.length, gzip(compact));
+    }
+
+    @Benchmark
+    public byte[] objectPerRow() throws IOException {
+        return mapper.writeValueAsBytes(routines);
+    }
+
+    @Benchmark
+    public byte[] compact() throws IOException {
+        return mapper.writeValueAsBytes(CompactTable.routines(routines));
+    }
+
+    private static int gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(body);
+        }
+        return out.size();
+    }
+}
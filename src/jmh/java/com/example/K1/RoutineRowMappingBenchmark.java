@@ -0,0 +1,66 @@
+package com.example.K1;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Reading the full routine list: Routine record by column index vs the former map per row
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RoutineRowMappingBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private JdbcTemplate jdbc;
+    private String sql;
+
+    @Setup
+    public void setup() {
+        jdbc = new JdbcTemplate(BenchmarkContext.seeded("mapping", rows));
+        sql = new RoutineQuery().sort(RoutineSortField.DATE, false).sql();
+    }
+
+    @Benchmark
+    public List<Routine> routineRecord() {
+        return jdbc.query(sql, RoutineRowMapper.INSTANCE);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> mapPerRow() {
+        return jdbc.query(sql, (rs, rowNum) -> {
+            Map<String, Object> map = new HashMap<>();
+            map.put("JobID", rs.getString("JobID"));
+            map.put("date", rs.getString("Ticket_Date"));
+            map.put("sn", rs.getString("SN"));
+            map.put("flight", rs.getString("Flight"));
+            map.put("from", rs.getString("From"));
+            map.put("to", rs.getString("To"));
+            map.put("sta", rs.getString("STA"));
+            map.put("eta", rs.getString("ETA"));
+            map.put("ata", rs.getString("ATA"));
+            map.put("remarks", rs.getString("Remarks"));
+            map.put("employeeID", rs.getString("StaffInCharge"));
+            map.put("supervisor", rs.getString("Supervisor"));
+            return map;
+        });
+    }
+}
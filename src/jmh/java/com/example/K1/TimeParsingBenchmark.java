@@ -0,0 +1,80 @@
+package com.example.K1;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Cost of the per-cell conversions done for every imported row (three times, one date),
+// against the former regex/split/valueOf implementation
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeParsingBenchmark {
+
+    // The shapes seen in real uploads, including a bad cell
+    private final String[] times = {"8", "8:05", "08:05", "8:5:00", "23:59:59", "07:30:00", "12:00", "bad"};
+    private final String[] dates = {"2024-01-15", "2023-12-31", "2024-02-29", "not a date"};
+    private final double[] fractions = {0.25, 0.3368055555555556, 0.5, 0.9999884259259259};
+
+    @Benchmark
+    public void legacyParseTime(Blackhole bh) {
+        for (String time : times) {
+            bh.consume(LegacyTimeParsing.parseTime(time));
+        }
+    }
+
+    @Benchmark
+    public void parseTime(Blackhole bh) {
+        for (String time : times) {
+            bh.consume(RoutineValues.parseTime(time));
+        }
+    }
+
+    // The primitive core without building the java.sql.Time
+    @Benchmark
+    public void secondOfDay(Blackhole bh) {
+        for (String time : times) {
+            bh.consume(RoutineValues.secondOfDay(time));
+        }
+    }
+
+    @Benchmark
+    public void excelTimeFraction(Blackhole bh) {
+        for (double fraction : fractions) {
+            bh.consume(RoutineValues.excelTimeSeconds(fraction));
+        }
+    }
+
+    @Benchmark
+    public void legacyParseDate(Blackhole bh) {
+        for (String date : dates) {
+            bh.consume(LegacyTimeParsing.parseDate(date));
+        }
+    }
+
+    @Benchmark
+    public void parseDate(Blackhole bh) {
+        for (String date : dates) {
+            bh.consume(RoutineValues.parseDate(date));
+        }
+    }
+
+    @Benchmark
+    public void packedDate(Blackhole bh) {
+        for (String date : dates) {
+            bh.consume(RoutineValues.packedDate(date));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.K1;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// Collects request latencies from many threads and reports percentiles in milliseconds
+final class LatencyRecorder {
+
+    private long[] nanos = new long[1024];
+    private int count;
+
+    synchronized void record(long elapsedNanos) {
+        if (count == nanos.length) {
+            nanos = Arrays.copyOf(nanos, count * 2);
+        }
+        nanos[count++] = elapsedNanos;
+    }
+
+    synchronized int count() {
+        return count;
+    }
+
+    // p in (0, 100]; nearest-rank percentile
+    synchronized double percentileMillis(double p) {
+        if (count == 0) return 0;
+        long[] sorted = Arrays.copyOf(nanos, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(p / 100 * count);
+        return sorted[Math.max(0, rank - 1)] / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    String summary() {
+        return String.format("n=%d p50=%.1fms p95=%.1fms p99=%.1fms",
+                count(), percentileMillis(50), percentileMillis(95), percentileMillis(99));
+    }
+}
@@ -0,0 +1,316 @@
+package com.example.K1;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * End-to-end load test: starts the application on a random port against an embedded H2
+ * database in SQL Server mode, seeded with synthetic routines and employees, and drives a
+ * weighted mix of the dashboard's requests over HTTP from k1.load.concurrency clients.
+ *
+ * Reports throughput and p50/p95/p99 per operation on stdout and as CSV under
+ * k1.load.report-dir. Runs offline; everything is sized by system properties, e.g.
+ *
+ *   ./gradlew loadTest --tests MixedWorkloadLoadTest -Dk1.load.routines=5000000 -Dk1.load.concurrency=128
+ *
+ * The data is seeded from k1.load.seed, so two runs with the same settings see the same
+ * rows and request sequence per client.
+ */
+class MixedWorkloadLoadTest {
+
+    static final String DATABASE = "k1-mixed-load";
+    static final int ROUTINES = Integer.getInteger("k1.load.routines", 2_000_000);
+    static final int EMPLOYEES = Integer.getInteger("k1.load.employees", 5_000);
+    static final int CONCURRENCY = Integer.getInteger("k1.load.concurrency", 64);
+    static final Duration WARMUP = Duration.parse(System.getProperty("k1.load.warmup", "PT15S"));
+    static final Duration DURATION = Duration.parse(System.getProperty("k1.load.duration", "PT60S"));
+    static final long SEED = Long.getLong("k1.load.seed", 42);
+    static final int IMPORT_ROWS = Integer.getInteger("k1.load.import-rows", 500);
+    // uploads wait for the two import workers instead of being turned away, as long as the run lasts
+    static final int IMPORT_QUEUE = Integer.getInteger("k1.load.import-queue", 1000);
+    static final double MAX_ERROR_RATE = 0.01;
+    static final String ADMIN = SyntheticFlightData.staffId(0);
+    // larger JSON bodies are row lists, not {"success": ...} results
+    static final int RESULT_BODY_LIMIT = 4096;
+
+    // Operation -> relative weight in the mix
+    enum Operation {
+        LOGIN(10), PERMISSION(15), ROUTINE_LIST(25), ROUTINE_SEARCH(15), ROUTINE_SORT(15),
+        ROUTINE_UPDATE(12), EXPORT(6), EXCEL_IMPORT(2);
+
+        final int weight;
+
+        Operation(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private static ConfigurableApplicationContext app;
+    private static String baseUrl;
+    private static List<Routine> sample;
+    private static byte[] workbook;
+    private static final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private static final ObjectMapper json = new ObjectMapper();
+
+    @BeforeAll
+    static void startApplication() throws Exception {
+        long start = System.currentTimeMillis();
+        JdbcTemplate jdbc = new JdbcTemplate(SyntheticFlightData.embeddedDatabase(DATABASE));
+        SyntheticFlightData data = new SyntheticFlightData(SEED, EMPLOYEES, 365);
+        data.seedEmployees(jdbc);
+        data.seedRoutines(jdbc, ROUTINES);
+        RoutineQuery query = new RoutineQuery().sort(RoutineSortField.JOB_ID, true).limit(5000);
+        sample = jdbc.query(query.sql(), RoutineRowMapper.INSTANCE, query.params());
+        Path upload = data.writeWorkbook(IMPORT_ROWS);
+        workbook = Files.readAllBytes(upload);
+        Files.delete(upload);
+        System.out.printf("seeded %d routine(s), %d employee(s) in %d ms%n", ROUTINES, EMPLOYEES, System.currentTimeMillis() - start);
+
+        app = new SpringApplicationBuilder(K1Application.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=" + SyntheticFlightData.embeddedUrl(DATABASE),
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.main.banner-mode=off",
+                        "routine.import.queue-capacity=" + IMPORT_QUEUE,
+                        // per-request INFO logging would measure the console rather than the service
+                        "logging.level.com.example.K1=WARN")
+                .run();
+        baseUrl = "http://localhost:" + app.getEnvironment().getProperty("local.server.port") + "/api";
+
+        // Measure with the in-memory views loaded, as in production after startup
+        RoutineSearchIndex index = app.getBean(RoutineSearchIndex.class);
+        RoutineAggregates aggregates = app.getBean(RoutineAggregates.class);
+        long deadline = System.currentTimeMillis() + Duration.ofMinutes(10).toMillis();
+        while ((!index.isReady() || !aggregates.isReady()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(500);
+        }
+        System.out.printf("application ready at %s after %d ms%n", baseUrl, System.currentTimeMillis() - start);
+    }
+
+    @AfterAll
+    static void stopApplication() {
+        if (app != null) app.close();
+    }
+
+    @Test
+    void mixedWorkload() throws Exception {
+        System.out.printf("warm-up %s, then %s with %d client(s)%n", WARMUP, DURATION, CONCURRENCY);
+        run(WARMUP, new Results());
+        Results results = new Results();
+        run(DURATION, results);
+
+        String report = results.report(DURATION);
+        System.out.println(report);
+        Path dir = Path.of(System.getProperty("k1.load.report-dir", "build/reports/loadTest"));
+        Files.createDirectories(dir);
+        Files.writeString(dir.resolve("mixed-workload.csv"), results.csv(DURATION));
+
+        for (Operation operation : Operation.values()) {
+            assertTrue(results.latency(operation).count() > 0, "no successful " + operation + " requests");
+            assertTrue(results.errorRate(operation) <= MAX_ERROR_RATE,
+                    operation + " error rate " + results.errorRate(operation) + " above " + MAX_ERROR_RATE);
+        }
+    }
+
+    private void run(Duration duration, Results results) {
+        long end = System.nanoTime() + duration.toNanos();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < CONCURRENCY; c++) {
+                Random random = new Random(SEED * 31 + c);
+                clients.submit(() -> {
+                    while (System.nanoTime() < end) {
+                        Operation operation = pick(random);
+                        long start = System.nanoTime();
+                        boolean ok;
+                        try {
+                            ok = execute(operation, random);
+                        } catch (IOException e) {
+                            ok = false;
+                        }
+                        results.record(operation, System.nanoTime() - start, ok);
+                    }
+                    return null;
+                });
+            }
+        }
+    }
+
+    private static Operation pick(Random random) {
+        int total = 0;
+        for (Operation operation : Operation.values()) total += operation.weight;
+        int r = random.nextInt(total);
+        for (Operation operation : Operation.values()) {
+            r -= operation.weight;
+            if (r < 0) return operation;
+        }
+        return Operation.LOGIN;
+    }
+
+    private boolean execute(Operation operation, Random random) throws IOException, InterruptedException {
+        String staff = SyntheticFlightData.staffId(1 + random.nextInt(EMPLOYEES - 1));
+        return switch (operation) {
+            case LOGIN -> send(post("/login", Map.of("employeeID", staff, "password", staff)));
+            case PERMISSION -> send(get("/permission?employeeID=" + staff));
+            case ROUTINE_LIST -> send(get("/routine?employeeID=" + staff + "&limit=100"));
+            case ROUTINE_SEARCH -> send(get("/routine?employeeID=" + ADMIN + "&limit=100&search="
+                    + SyntheticFlightData.STATIONS[random.nextInt(SyntheticFlightData.STATIONS.length)]));
+            case ROUTINE_SORT -> {
+                RoutineSortField field = RoutineSortField.values()[random.nextInt(RoutineSortField.values().length)];
+                yield send(get("/routine?employeeID=" + ADMIN + "&limit=100&sortBy=" + field.key()
+                        + "&order=" + (random.nextBoolean() ? "asc" : "desc")));
+            }
+            case ROUTINE_UPDATE -> {
+                Routine routine = sample.get(random.nextInt(sample.size()));
+                yield send(put("/routine/" + routine.jobId() + "?employeeID=" + ADMIN, updateBody(routine, random)));
+            }
+            case EXPORT -> send(get("/routine/export?employeeID=" + staff));
+            case EXCEL_IMPORT -> send(importRequest());
+        };
+    }
+
+    private static Map<String, Object> updateBody(Routine routine, Random random) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("date", routine.date());
+        body.put("sn", routine.sn());
+        body.put("flight", routine.flight());
+        body.put("from", routine.from());
+        body.put("to", routine.to());
+        body.put("sta", routine.sta());
+        body.put("eta", routine.eta());
+        body.put("ata", routine.ata());
+        body.put("remarks", SyntheticFlightData.REMARKS[random.nextInt(SyntheticFlightData.REMARKS.length)]);
+        body.put("employeeID", routine.staffInCharge());
+        body.put("supervisor", routine.supervisor());
+        return body;
+    }
+
+    // 2xx, and for the Map-returning endpoints no "success": false
+    private static boolean send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() / 100 != 2) return false;
+        boolean json = response.headers().firstValue("Content-Type").orElse("").startsWith("application/json");
+        byte[] body = response.body();
+        return !json || body.length > RESULT_BODY_LIMIT
+                || !new String(body, StandardCharsets.UTF_8).contains("\"success\":false");
+    }
+
+    private static HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    private static HttpRequest post(String path, Object body) throws IOException {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(json.writeValueAsBytes(body))).build();
+    }
+
+    private static HttpRequest put(String path, Object body) throws IOException {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(json.writeValueAsBytes(body))).build();
+    }
+
+    // Submitting the upload is what the user waits for; the import itself runs as a background job
+    private static HttpRequest importRequest() throws IOException {
+        String boundary = "k1-load-" + System.nanoTime();
+        ByteArrayOutputStream body = new ByteArrayOutputStream(workbook.length + 256);
+        body.write(("--" + boundary + "\r\nContent-Disposition: form-data; name=\"file\"; filename=\"load.xlsx\"\r\n"
+                + "Content-Type: application/octet-stream\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.write(workbook);
+        body.write(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/routine/import/excel?employeeID=" + ADMIN))
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray())).build();
+    }
+
+    // Latencies of successful requests and error counts, per operation
+    private static final class Results {
+        private final Map<Operation, LatencyRecorder> latencies = new LinkedHashMap<>();
+        private final Map<Operation, AtomicLong> errors = new LinkedHashMap<>();
+
+        Results() {
+            for (Operation operation : Operation.values()) {
+                latencies.put(operation, new LatencyRecorder());
+                errors.put(operation, new AtomicLong());
+            }
+        }
+
+        void record(Operation operation, long nanos, boolean ok) {
+            if (ok) {
+                latencies.get(operation).record(nanos);
+            } else {
+                errors.get(operation).incrementAndGet();
+            }
+        }
+
+        LatencyRecorder latency(Operation operation) {
+            return latencies.get(operation);
+        }
+
+        double errorRate(Operation operation) {
+            long failed = errors.get(operation).get();
+            long total = failed + latencies.get(operation).count();
+            return total == 0 ? 0 : (double) failed / total;
+        }
+
+        String report(Duration duration) {
+            StringBuilder sb = new StringBuilder(String.format("%-16s %9s %8s %9s %9s %9s %9s%n",
+                    "operation", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms"));
+            long total = 0;
+            for (Operation operation : Operation.values()) {
+                LatencyRecorder latency = latencies.get(operation);
+                total += latency.count();
+                sb.append(String.format("%-16s %9d %8d %9.1f %9.1f %9.1f %9.1f%n", operation, latency.count(),
+                        errors.get(operation).get(), latency.count() / (double) duration.toSeconds(),
+                        latency.percentileMillis(50), latency.percentileMillis(95), latency.percentileMillis(99)));
+            }
+            sb.append(String.format("total %d request(s), %.1f req/s", total, total / (double) duration.toSeconds()));
+            return sb.toString();
+        }
+
+        String csv(Duration duration) {
+            List<String> lines = new ArrayList<>();
+            lines.add("operation,requests,errors,requests_per_second,p50_ms,p95_ms,p99_ms");
+            for (Operation operation : Operation.values()) {
+                LatencyRecorder latency = latencies.get(operation);
+                lines.add(String.format("%s,%d,%d,%.1f,%.1f,%.1f,%.1f", operation, latency.count(), errors.get(operation).get(),
+                        latency.count() / (double) duration.toSeconds(),
+                        latency.percentileMillis(50), latency.percentileMillis(95), latency.percentileMillis(99)));
+            }
+            return String.join("\n", lines) + "\n";
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.K1;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admission control for /api: every request is assigned to an endpoint class with its own
+ * {@link Bulkhead}, so a burst of exports queues behind the export limit instead of taking
+ * the request threads and JDBC connections that logins need.
+ *
+ *   critical - /api/login, /api/permission
+ *   heavy    - Excel export, Excel/CSV import uploads, and unpaged or streamed Admin /api/routine
+ *              reads without search
+ *   standard - everything else (the SSE change feed is long-lived and not limited)
+ *
+ * Nothing is read from the database before a request is admitted, so a burst cannot get around
+ * the limits by making the filter run permission lookups. Admin reads are recognised from the
+ * permission cache alone; an employee who is not cached counts as standard until their first
+ * request has looked them up. Staff reads only ever cover their own rows and stay standard.
+ *
+ * Limits come from k1.admission.{class}.max-concurrent / queue-depth / max-wait. A request that
+ * finds the queue full gets 429, one that waited max-wait without a slot gets 503; both carry
+ * Retry-After. Async requests (streamed exports) hold their slot until the response completes.
+ *
+ * k1.admission.rejected{class,reason}  - requests turned away
+ * k1.admission.queue.wait{class}       - time admitted requests spent waiting
+ * k1.admission.active / queued{class}  - current occupancy
+ */
+@Component
+class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControlFilter.class);
+
+    enum EndpointClass { CRITICAL, HEAVY, STANDARD }
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private PermissionService permissionService;
+
+    private boolean enabled;
+    private long retryAfterSeconds;
+    private final Map<EndpointClass, Bulkhead> bulkheads = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Timer> queueWait = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> queueFull = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> timedOut = new EnumMap<>(EndpointClass.class);
+
+    @PostConstruct
+    void configure() {
+        enabled = environment.getProperty("k1.admission.enabled", Boolean.class, true);
+        retryAfterSeconds = environment.getProperty("k1.admission.retry-after", Duration.class, Duration.ofSeconds(5)).toSeconds();
+        bulkhead(EndpointClass.CRITICAL, 50, 200, Duration.ofSeconds(2));
+        bulkhead(EndpointClass.HEAVY, 4, 16, Duration.ofSeconds(10));
+        bulkhead(EndpointClass.STANDARD, 100, 400, Duration.ofSeconds(5));
+    }
+
+    private void bulkhead(EndpointClass endpointClass, int maxConcurrent, int queueDepth, Duration maxWait) {
+        String name = endpointClass.name().toLowerCase();
+        String prefix = "k1.admission." + name + ".";
+        Bulkhead bulkhead = new Bulkhead(name,
+                environment.getProperty(prefix + "max-concurrent", Integer.class, maxConcurrent),
+                environment.getProperty(prefix + "queue-depth", Integer.class, queueDepth),
+                environment.getProperty(prefix + "max-wait", Duration.class, maxWait));
+        bulkheads.put(endpointClass, bulkhead);
+        queueWait.put(endpointClass, Timer.builder("k1.admission.queue.wait")
+                .description("Time admitted requests waited for a slot")
+                .tag("class", name)
+                .publishPercentiles(0.5, 0.99)
+                .register(registry));
+        queueFull.put(endpointClass, rejected(name, "queue_full"));
+        timedOut.put(endpointClass, rejected(name, "timeout"));
+        Gauge.builder("k1.admission.active", bulkhead, Bulkhead::active).tag("class", name).register(registry);
+        Gauge.builder("k1.admission.queued", bulkhead, Bulkhead::queued).tag("class", name).register(registry);
+        logger.info("Admission control [{}]: {} concurrent", name, bulkhead.maxConcurrent());
+    }
+
+    private Counter rejected(String name, String reason) {
+        return Counter.builder("k1.admission.rejected")
+                .description("Requests rejected by admission control")
+                .tag("class", name)
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !path(request).startsWith("/api/") || "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        EndpointClass endpointClass = classify(request);
+        if (endpointClass == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        Bulkhead bulkhead = bulkheads.get(endpointClass);
+        long start = System.nanoTime();
+        Bulkhead.Outcome outcome;
+        try {
+            outcome = bulkhead.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, "Request interrupted while waiting.");
+            return;
+        }
+        if (outcome == Bulkhead.Outcome.QUEUE_FULL) {
+            queueFull.get(endpointClass).increment();
+            logger.warn("Admission [{}] queue full, rejected {} {}", bulkhead.name(), request.getMethod(), path(request));
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, "Too many requests, please try again later.");
+            return;
+        }
+        if (outcome == Bulkhead.Outcome.TIMED_OUT) {
+            timedOut.get(endpointClass).increment();
+            logger.warn("Admission [{}] wait timed out, rejected {} {}", bulkhead.name(), request.getMethod(), path(request));
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, "Server busy, please try again later.");
+            return;
+        }
+        queueWait.get(endpointClass).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) bulkhead.release();
+        };
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingListener(release));
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    // null = not limited
+    private EndpointClass classify(HttpServletRequest request) {
+        String path = path(request);
+        switch (path) {
+            case "/api/login", "/api/permission" -> {
+                return EndpointClass.CRITICAL;
+            }
+            case "/api/routine/export", "/api/routine/import/excel", "/api/routine/import/csv" -> {
+                return EndpointClass.HEAVY;
+            }
+            case "/api/routine/changes" -> {
+                return null;
+            }
+            case "/api/routine" -> {
+                if ("GET".equals(request.getMethod()) && isUnboundedRead(request)) return EndpointClass.HEAVY;
+                return EndpointClass.STANDARD;
+            }
+            default -> {
+                return EndpointClass.STANDARD;
+            }
+        }
+    }
+
+    // A streamed list, or a list without page size or search, of every employee's rows
+    private boolean isUnboundedRead(HttpServletRequest request) {
+        if (!permissionService.isCachedAdmin(request.getParameter("employeeID"))) return false;
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept != null && accept.contains(MediaType.APPLICATION_NDJSON_VALUE)) return true;
+        return !hasValue(request, "limit") && !hasValue(request, "cursor") && !hasValue(request, "search");
+    }
+
+    private static boolean hasValue(HttpServletRequest request, String name) {
+        String value = request.getParameter(name);
+        return value != null && !value.isEmpty();
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"success\":false,\"message\":\"" + message + "\"}");
+    }
+
+    private record ReleasingListener(Runnable release) implements AsyncListener {
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // re-dispatch started a new async cycle; keep listening
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.K1;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Audit trail of security-relevant actions (logins, user edits, Routine changes) as one JSON
+ * object per line in k1.audit.file, kept apart from the diagnostic log.
+ *
+ * {@link #record} only offers the event to a bounded queue (k1.audit.queue-capacity) and never
+ * blocks: when the queue is full the event is dropped and counted. A single writer thread
+ * drains up to k1.audit.batch-size events at a time and appends them with one write and flush
+ * per batch. The file is opened in append mode, so external rotation (copytruncate) works.
+ *
+ * k1.audit.events{outcome=written|dropped|failed} - events by what became of them
+ * k1.audit.queue.size                              - events waiting for the writer
+ */
+@Component
+class AuditLog implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLog.class);
+
+    record Event(Instant time, String action, String actor, String target, boolean success, String detail) {
+    }
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${k1.audit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${k1.audit.file:logs/audit.jsonl}")
+    private Path file;
+
+    @Value("${k1.audit.queue-capacity:8192}")
+    private int queueCapacity;
+
+    @Value("${k1.audit.batch-size:512}")
+    private int batchSize;
+
+    @Value("${k1.audit.flush-interval:1s}")
+    private Duration flushInterval;
+
+    private ArrayBlockingQueue<Event> queue;
+    private Thread writer;
+    private volatile boolean running;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(Math.max(queueCapacity, 1));
+        if (!enabled) return;
+        running = true;
+        writer = new Thread(this::drain, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Lets the writer empty the queue and exit. Not interrupted: that would close the file
+    // channel in the middle of a write.
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (writer == null) return;
+        running = false;
+        writer.join(flushInterval.toMillis() + 5000);
+    }
+
+    /**
+     * Queues one audit event; actor is the employee acting (the client address when the endpoint
+     * does not say), target what was acted on. Returns at once, also when the event had to be dropped.
+     */
+    void record(String action, String actor, String target, boolean success, String detail) {
+        if (!enabled) return;
+        if (!queue.offer(new Event(Instant.now(), action, actor, target, success, detail))) {
+            dropped.increment();
+        }
+    }
+
+    long dropped() {
+        return dropped.sum();
+    }
+
+    private void drain() {
+        List<Event> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Event first = queue.poll(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch, batchSize - batch.size());
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<Event> batch) {
+        if (batch.isEmpty()) return;
+        StringBuilder lines = new StringBuilder(batch.size() * 160);
+        int count = 0;
+        for (Event event : batch) {
+            try {
+                lines.append(objectMapper.writeValueAsString(event)).append('\n');
+                count++;
+            } catch (IOException e) {
+                failed.increment();
+            }
+        }
+        if (count == 0) return;
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+            try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE)) {
+                out.write(lines.toString());
+            }
+            written.add(count);
+        } catch (IOException e) {
+            failed.add(count);
+            logger.error("Could not append {} audit event(s) to {}: {}", count, file, e.getMessage());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("k1.audit.events", written, LongAdder::sum)
+                .tag("outcome", "written").register(registry);
+        FunctionCounter.builder("k1.audit.events", dropped, LongAdder::sum)
+                .tag("outcome", "dropped").register(registry);
+        FunctionCounter.builder("k1.audit.events", failed, LongAdder::sum)
+                .tag("outcome", "failed").register(registry);
+        Gauge.builder("k1.audit.queue.size", this, a -> a.queue == null ? 0 : a.queue.size()).register(registry);
+    }
+}
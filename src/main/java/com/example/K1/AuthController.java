@@ -20,21 +20,31 @@ public class AuthController {
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private LogSampler logSampler;
+
     @PostMapping("/login")
     public ResponseEntity<String> login(@RequestBody LoginRequest request, HttpServletRequest httpRequest) {
         String origin = httpRequest.getHeader("Origin");
-        logger.info("Login button clicked in frontend. Origin: [{}], Attempting login for Employee_ID [{}]", origin, request.getEmployeeID());
+        boolean logged = logSampler.sample("login");
+        if (logged) {
+            logger.info("Login attempt from origin [{}] for Employee_ID [{}]", origin, request.getEmployeeID());
+        }
         if (request.getEmployeeID() == null || request.getPassword() == null ||
             request.getEmployeeID().isEmpty() || request.getPassword().isEmpty()) {
-            logger.warn("Login attempt with missing Employee ID or password.");
+            if (logged) logger.warn("Login attempt with missing Employee ID or password.");
             return ResponseEntity.badRequest().body("Please enter both Employee ID and password.");
         }
         boolean authenticated = authService.authenticate(request.getEmployeeID(), request.getPassword());
+        // the audit trail keeps every attempt, the diagnostic log only a sample
+        auditLog.record("login", request.getEmployeeID(), origin, authenticated, null);
         if (authenticated) {
-            logger.info("Frontend login successful for Employee_ID [{}]", request.getEmployeeID());
             return ResponseEntity.ok("Login successful!");
         } else {
-            logger.warn("Frontend login failed for Employee_ID [{}]", request.getEmployeeID());
+            if (logged) logger.warn("Frontend login failed for Employee_ID [{}]", request.getEmployeeID());
             return ResponseEntity.status(401).body("Invalid Employee ID or password.");
         }
     }
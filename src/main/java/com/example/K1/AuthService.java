@@ -14,9 +14,13 @@ public class AuthService {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private SqlMetrics sqlMetrics;
+
     public boolean authenticate(String employeeId, String password) {
         String sql = "SELECT COUNT(*) FROM EmployeeInfo WHERE Employee_ID = ? AND Encry_Pw = ?";
-        Integer count = jdbcTemplate.queryForObject(sql, new Object[]{employeeId, password}, Integer.class);
+        Integer count = sqlMetrics.time(SqlMetrics.LOGIN,
+                () -> jdbcTemplate.queryForObject(sql, new Object[]{employeeId, password}, Integer.class));
         boolean success = count != null && count > 0;
         if (success) {
             logger.info("User [{}] logged in successfully.", employeeId);
@@ -0,0 +1,65 @@
+package com.example.K1;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * At most maxConcurrent requests of one endpoint class run at a time; up to queueDepth more
+ * wait (for at most maxWait) and anything beyond that is turned away at once.
+ */
+final class Bulkhead {
+
+    enum Outcome { ADMITTED, QUEUE_FULL, TIMED_OUT }
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int queueDepth;
+    private final Duration maxWait;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+
+    Bulkhead(String name, int maxConcurrent, int queueDepth, Duration maxWait) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.queueDepth = queueDepth;
+        this.maxWait = maxWait;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    String name() {
+        return name;
+    }
+
+    Outcome acquire() throws InterruptedException {
+        // a zero timeout still honours the fair ordering, unlike the untimed tryAcquire()
+        if (permits.tryAcquire(0, TimeUnit.NANOSECONDS)) return Outcome.ADMITTED;
+        // count ourselves in before checking, so concurrent arrivals cannot all slip past the limit
+        if (queued.incrementAndGet() > queueDepth) {
+            queued.decrementAndGet();
+            return Outcome.QUEUE_FULL;
+        }
+        try {
+            return permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS) ? Outcome.ADMITTED : Outcome.TIMED_OUT;
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    void release() {
+        permits.release();
+    }
+
+    int active() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    int queued() {
+        return queued.get();
+    }
+
+    int maxConcurrent() {
+        return maxConcurrent;
+    }
+}
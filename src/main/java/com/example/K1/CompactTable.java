@@ -0,0 +1,132 @@
+package com.example.K1;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Columnar JSON for list endpoints called with format=compact: the column names once, then
+ * one array per row. Columns with few distinct values (stations, dates, staff IDs) are
+ * dictionary-encoded: their distinct values are listed once under "dictionaries" and the
+ * rows carry the index into that list. Flight numbers and remarks are written as plain strings:
+ * they are close to unique per row, so a dictionary would only add the codes to the payload.
+ *
+ * {"columns":["JobID","date",...],
+ *  "dictionaries":{"date":["2025-01-02",...],"from":["HKG",...],...},
+ *  "rows":[["3f2a...",0,"SN123456","CX450",0,3,"10:05:00",...],...]}
+ *
+ * A null cell is written as null in both plain and dictionary columns.
+ */
+final class CompactTable<T> implements JsonSerializable {
+
+    record Column<T>(String name, Function<T, String> value, boolean dictionary) {
+    }
+
+    static final List<Column<Routine>> ROUTINE_COLUMNS = List.of(
+            new Column<>("JobID", Routine::jobId, false),
+            new Column<>("date", Routine::date, true),
+            new Column<>("sn", Routine::sn, false),
+            new Column<>("flight", Routine::flight, false),
+            new Column<>("from", Routine::from, true),
+            new Column<>("to", Routine::to, true),
+            new Column<>("sta", Routine::sta, false),
+            new Column<>("eta", Routine::eta, false),
+            new Column<>("ata", Routine::ata, false),
+            new Column<>("remarks", Routine::remarks, false),
+            new Column<>("employeeID", Routine::staffInCharge, true),
+            new Column<>("supervisor", Routine::supervisor, true)
+    );
+
+    static final List<Column<Employee>> EMPLOYEE_COLUMNS = List.of(
+            new Column<>("employeeID", Employee::employeeID, false),
+            new Column<>("name", Employee::name, false),
+            new Column<>("password", Employee::password, false),
+            new Column<>("permission", Employee::permission, true)
+    );
+
+    private final List<Column<T>> columns;
+    private final List<T> rows;
+
+    CompactTable(List<Column<T>> columns, List<T> rows) {
+        this.columns = columns;
+        this.rows = rows;
+    }
+
+    static CompactTable<Routine> routines(List<Routine> routines) {
+        return new CompactTable<>(ROUTINE_COLUMNS, routines);
+    }
+
+    static CompactTable<Employee> employees(List<Employee> employees) {
+        return new CompactTable<>(EMPLOYEE_COLUMNS, employees);
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        // The dictionaries precede the rows, so the codes are assigned in a first pass
+        int[][] codes = new int[columns.size()][];
+        String[][] dictionaries = new String[columns.size()][];
+        for (int c = 0; c < columns.size(); c++) {
+            Column<T> column = columns.get(c);
+            if (!column.dictionary()) continue;
+            Map<String, Integer> index = new HashMap<>();
+            int[] columnCodes = new int[rows.size()];
+            for (int r = 0; r < rows.size(); r++) {
+                String value = column.value().apply(rows.get(r));
+                columnCodes[r] = value == null ? -1 : index.computeIfAbsent(value, v -> index.size());
+            }
+            String[] dictionary = new String[index.size()];
+            index.forEach((value, code) -> dictionary[code] = value);
+            codes[c] = columnCodes;
+            dictionaries[c] = dictionary;
+        }
+
+        gen.writeStartObject();
+        gen.writeArrayFieldStart("columns");
+        for (Column<T> column : columns) {
+            gen.writeString(column.name());
+        }
+        gen.writeEndArray();
+
+        gen.writeObjectFieldStart("dictionaries");
+        for (int c = 0; c < columns.size(); c++) {
+            if (dictionaries[c] == null) continue;
+            gen.writeArrayFieldStart(columns.get(c).name());
+            for (String value : dictionaries[c]) {
+                gen.writeString(value);
+            }
+            gen.writeEndArray();
+        }
+        gen.writeEndObject();
+
+        gen.writeArrayFieldStart("rows");
+        for (int r = 0; r < rows.size(); r++) {
+            T row = rows.get(r);
+            gen.writeStartArray();
+            for (int c = 0; c < columns.size(); c++) {
+                if (codes[c] != null) {
+                    if (codes[c][r] < 0) gen.writeNull();
+                    else gen.writeNumber(codes[c][r]);
+                } else {
+                    String value = columns.get(c).value().apply(row);
+                    if (value == null) gen.writeNull();
+                    else gen.writeString(value);
+                }
+            }
+            gen.writeEndArray();
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer) throws IOException {
+        serialize(gen, serializers); // never polymorphic
+    }
+}
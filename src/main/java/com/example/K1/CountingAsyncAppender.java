@@ -0,0 +1,27 @@
+package com.example.K1;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * logback AsyncAppender (see logback-spring.xml) that counts the events it drops: with
+ * neverBlock a full queue discards instead of stalling the request thread, and past the
+ * discarding threshold INFO and below are discarded first. Published as k1.log.dropped by
+ * {@link LogSampler}. The count is taken just before the hand-off, so it is approximate
+ * under contention.
+ */
+public class CountingAsyncAppender extends AsyncAppender {
+
+    static final LongAdder DROPPED = new LongAdder();
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        int remaining = getRemainingCapacity();
+        if (remaining == 0 || (remaining < getDiscardingThreshold() && isDiscardable(event))) {
+            DROPPED.increment();
+        }
+        super.append(event);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.K1;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal RFC 4180 reader: comma-separated fields, optionally in double quotes, with ""
+ * for a quote and line breaks allowed inside quoted fields. Records end with LF or CRLF.
+ * Reads one record at a time, so the file is never held in memory.
+ */
+final class CsvReader {
+
+    private final Reader in;
+    private final StringBuilder field = new StringBuilder();
+    private int pushback = -2; // -2 = nothing pushed back
+    private long record;
+
+    CsvReader(Reader in) {
+        this.in = in;
+    }
+
+    // 1-based number of the record last returned by next()
+    long recordNumber() {
+        return record;
+    }
+
+    // The next record, or null at the end of the input; a blank line is a record with one empty field
+    String[] next() throws IOException {
+        int c = read();
+        if (c < 0) return null;
+        if (record == 0 && c == '\uFEFF') { // UTF-8 byte order mark
+            c = read();
+            if (c < 0) return null;
+        }
+        List<String> fields = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        while (true) {
+            if (quoted) {
+                if (c < 0) throw new IOException("Unterminated quoted field in record " + (record + 1));
+                if (c == '"') {
+                    int n = read();
+                    if (n == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = n;
+                        continue;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty() && !wasQuoted) {
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                wasQuoted = false;
+            } else if (c == '\n' || c < 0) {
+                break;
+            } else if (c == '\r') {
+                int n = read();
+                if (n != '\n') unread(n);
+                break;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+        fields.add(field.toString());
+        record++;
+        return fields.toArray(new String[0]);
+    }
+
+    private int read() throws IOException {
+        if (pushback != -2) {
+            int c = pushback;
+            pushback = -2;
+            return c;
+        }
+        return in.read();
+    }
+
+    private void unread(int c) {
+        pushback = c;
+    }
+}
@@ -1,138 +1,344 @@
 package com.example.K1;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.web.bind.annotation.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.util.*;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
-import java.io.InputStream;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api")
 @CrossOrigin(
         origins = {"http://localhost:8080", "http://localhost:5173", "http://localhost:5174"},
-        allowCredentials = "true"
+        allowCredentials = "true",
+        exposedHeaders = {DashboardController.NEXT_CURSOR_HEADER, HttpHeaders.ETAG}
 )
 public class DashboardController {
 
     private static final Logger logger = LoggerFactory.getLogger(DashboardController.class);
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final int NDJSON_FETCH_SIZE = 1000;
+    private static final int NDJSON_FLUSH_ROWS = 500;
+
+    static final String COMPACT_FORMAT = "compact";
+
+    // Clients may keep Routine reads but must revalidate them with If-None-Match
+    private static final CacheControl ROUTINE_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private PermissionService permissionService;
+
+    @Autowired
+    private RoutineExcelExporter routineExcelExporter;
+
+    @Autowired
+    private RoutineSearchIndex routineSearchIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SqlMetrics sqlMetrics;
+
+    @Autowired
+    private ImportJobService importJobService;
+
+    @Autowired
+    private RoutineAggregates routineAggregates;
+
+    @Autowired
+    private RoutineBulkService routineBulkService;
+
+    @Autowired
+    private RoutineChangeFeed routineChangeFeed;
+
+    @Autowired
+    private RoutineDataVersion routineDataVersion;
+
+    @Autowired
+    private RoutineReplica routineReplica;
+
+    @Autowired
+    private RoutineArchiver routineArchiver;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private LogSampler logSampler;
+
+    // Paged Routine reads without dateFrom start this many days back
+    @Value("${routine.query.default-window-days:7}")
+    private int defaultWindowDays;
+
     // Get permission info for an employee
     @GetMapping("/permission")
     public Map<String, Object> getPermission(@RequestParam String employeeID) {
-        logger.info("Dashboard permission request for Employee_ID [{}]", employeeID);
-        String sql = "SELECT Permission FROM EmployeeInfo WHERE Employee_ID = ?";
-        String permission = jdbcTemplate.queryForObject(sql, new Object[]{employeeID}, String.class);
+        String permission = permissionService.getPermission(employeeID);
         Map<String, Object> result = new HashMap<>();
         result.put("permission", permission);
-        logger.info("Permission for Employee_ID [{}]: {}", employeeID, permission);
+        if (logSampler.sample("permission")) {
+            logger.info("Permission for Employee_ID [{}]: {}", employeeID, permission);
+        }
         return result;
     }
 
-    // Get routine(s) for an employee or all if admin
+    // Permission cache size and hit/miss counters
+    @GetMapping("/permission/cache")
+    public Map<String, Object> getPermissionCacheStats() {
+        return permissionService.stats();
+    }
+
+    // Get routine(s) for an employee or all if admin.
+    // Passing limit (and the X-Next-Cursor of the previous page as cursor) pages through the result.
+    // format=compact returns the rows as a CompactTable instead of one object per row.
+    // dateFrom/dateTo bound Ticket_Date (see RoutineDateRange); without dateFrom the read starts
+    // routine.query.default-window-days back, paged or not.
     @GetMapping("/routine")
-    public List<Map<String, Object>> getRoutine(
+    public ResponseEntity<?> getRoutine(
         @RequestParam(required = false) String employeeID,
         @RequestParam(required = false) String search,
         @RequestParam(required = false, defaultValue = "Ticket_Date") String sortBy,
-        @RequestParam(required = false, defaultValue = "desc") String order
+        @RequestParam(required = false, defaultValue = "desc") String order,
+        @RequestParam(required = false) Integer limit,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) String format,
+        @RequestParam(required = false) String dateFrom,
+        @RequestParam(required = false) String dateTo,
+        WebRequest webRequest
     ) {
-        logger.info("Received GET /api/routine request from employeeID [{}], search [{}], sortBy [{}], order [{}]", employeeID, search, sortBy, order);
+        boolean logged = logSampler.sample("routine.read");
+        if (logged) {
+            logger.info("Received GET /api/routine request from employeeID [{}], search [{}], sortBy [{}], order [{}], limit [{}], dateFrom [{}], dateTo [{}]", employeeID, search, sortBy, order, limit, dateFrom, dateTo);
+        }
+
+        boolean paged = limit != null || cursor != null;
+        RoutineDateRange range = routineRange(dateFrom, dateTo);
+        if (range == null) {
+            logger.warn("Rejected routine date range [{}] - [{}]", dateFrom, dateTo);
+            return ResponseEntity.badRequest().build();
+        }
+        boolean archive = routineArchiver.reaches(range);
 
         // Check permission
-        String roleSql = "SELECT Permission FROM EmployeeInfo WHERE Employee_ID = ?";
-        String permission = jdbcTemplate.queryForObject(roleSql, new Object[]{employeeID}, String.class);
+        String permission = permissionService.getPermission(employeeID);
 
-        StringBuilder sql = new StringBuilder("SELECT JobID, Ticket_Date, SN, Flight, [From], [To], ");
-        sql.append("CONVERT(VARCHAR(8), STA, 108) as STA, ");
-        sql.append("CONVERT(VARCHAR(8), ETA, 108) as ETA, ");
-        sql.append("CONVERT(VARCHAR(8), ATA, 108) as ATA, ");
-        sql.append("Remarks, StaffInCharge, Supervisor FROM Routine WHERE 1=1");
-        List<Object> params = new ArrayList<>();
+        boolean compact = COMPACT_FORMAT.equalsIgnoreCase(format);
+        String etag = routineDataVersion.etag(compact ? "compact" : "list", routineScope(permission, employeeID), search, sortBy, order, limit, cursor, range, archive);
+        if (webRequest.checkNotModified(etag)) {
+            return notModified(etag);
+        }
 
-        if (!"Admin".equalsIgnoreCase(permission)) {
-            sql.append(" AND StaffInCharge = ?");
-            params.add(employeeID);
+        RoutineSortField sortField = RoutineSortField.fromRequest(sortBy);
+        RoutineCursor after = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            after = RoutineCursor.decode(cursor);
+            if (after == null || after.sortField() != sortField) {
+                logger.warn("Rejected routine cursor that does not match sortBy [{}]", sortBy);
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        int pageSize = paged ? RoutineQuery.pageSize(limit) : 0;
+
+        String staff = "Admin".equalsIgnoreCase(permission) ? null : employeeID;
+        boolean ascending = order.equalsIgnoreCase("asc");
+        // one extra row tells us whether there is a next page
+        int fetch = paged ? pageSize + 1 : 0;
+
+        List<Routine> routines = archive ? null : replicaQuery(staff, search, range, sortField, ascending, after, fetch);
+        // rows from memory are as current as the version; rows from the replica pool may lag it
+        boolean tagged = routines != null || !readsReplicaPool();
+        if (routines == null) {
+            RoutineQuery query = new RoutineQuery().staff(staff).dateRange(range, archive);
+            if (!applySearch(query, search, archive)) {
+                if (logged) logger.info("Routine data returned: 0 record(s) (no search index match)");
+                List<Routine> none = new ArrayList<>();
+                return ResponseEntity.ok().eTag(etag).cacheControl(ROUTINE_CACHE_CONTROL)
+                        .body(compact ? CompactTable.routines(none) : none);
+            }
+            query.sort(sortField, ascending).after(after).limit(fetch);
+            routines = sqlMetrics.time(SqlMetrics.ROUTINE_SELECT,
+                    () -> jdbcTemplate.query(query.sql(), RoutineRowMapper.INSTANCE, query.params()));
         }
 
-        // Search functionality - all fields are searchable
-        if (search != null && !search.isEmpty()) {
-            sql.append(" AND (");
-            sql.append("JobID LIKE ? OR ");
-            sql.append("Ticket_Date LIKE ? OR ");
-            sql.append("SN LIKE ? OR ");
-            sql.append("Flight LIKE ? OR ");
-            sql.append("[From] LIKE ? OR ");
-            sql.append("[To] LIKE ? OR ");
-            sql.append("STA LIKE ? OR ");
-            sql.append("ETA LIKE ? OR ");
-            sql.append("ATA LIKE ? OR ");
-            sql.append("Remarks LIKE ? OR ");
-            sql.append("StaffInCharge LIKE ? OR ");
-            sql.append("Supervisor LIKE ?");
-            sql.append(")");
-            
-            String like = "%" + search + "%";
-            // add 12 parameters (corresponding to 12 LIKE conditions)
-            for (int i = 0; i < 12; i++) {
-                params.add(like);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(ROUTINE_CACHE_CONTROL);
+        if (tagged) response.eTag(etag);
+        if (paged && routines.size() > pageSize) {
+            routines = routines.subList(0, pageSize);
+            Routine last = routines.get(pageSize - 1);
+            RoutineCursor next = new RoutineCursor(sortField, sortField.valueOf(last), last.jobId());
+            response.header(NEXT_CURSOR_HEADER, next.encode());
+        }
+        if (logged) logger.info("Routine data returned: {} record(s)", routines.size());
+        return response.body(compact ? CompactTable.routines(routines) : routines);
+    }
+
+    // Streaming variant of getRoutine for Accept: application/x-ndjson. Rows are read from a
+    // forward-only cursor and written one JSON object per line as they arrive, so nothing
+    // is buffered whatever the size of the result. Same permission scope and search as above.
+    @GetMapping(value = "/routine", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamRoutine(
+        @RequestParam(required = false) String employeeID,
+        @RequestParam(required = false) String search,
+        @RequestParam(required = false, defaultValue = "Ticket_Date") String sortBy,
+        @RequestParam(required = false, defaultValue = "desc") String order,
+        @RequestParam(required = false) String dateFrom,
+        @RequestParam(required = false) String dateTo,
+        WebRequest webRequest
+    ) {
+        boolean logged = logSampler.sample("routine.read");
+        if (logged) {
+            logger.info("Received streaming GET /api/routine request from employeeID [{}], search [{}], sortBy [{}], order [{}], dateFrom [{}], dateTo [{}]", employeeID, search, sortBy, order, dateFrom, dateTo);
+        }
+        RoutineDateRange range = routineRange(dateFrom, dateTo);
+        if (range == null) {
+            logger.warn("Rejected routine date range [{}] - [{}]", dateFrom, dateTo);
+            return ResponseEntity.badRequest().build();
+        }
+        boolean archive = routineArchiver.reaches(range);
+        String permission = permissionService.getPermission(employeeID);
+
+        String etag = routineDataVersion.etag("ndjson", routineScope(permission, employeeID), search, sortBy, order, range, archive);
+        if (webRequest.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+
+        RoutineQuery query = new RoutineQuery()
+                .staff("Admin".equalsIgnoreCase(permission) ? null : employeeID)
+                .dateRange(range, archive);
+        boolean anyMatch = applySearch(query, search, archive);
+        query.sort(RoutineSortField.fromRequest(sortBy), order.equalsIgnoreCase("asc"));
+
+        StreamingResponseBody body = out -> {
+            if (!anyMatch) return;
+            ObjectWriter writer = objectMapper.writerFor(Routine.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+                gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                long[] count = {0};
+                // includes writing to the client, so kept apart from routine_select
+                sqlMetrics.time(SqlMetrics.ROUTINE_STREAM, () -> jdbcTemplate.query(query.streaming(NDJSON_FETCH_SIZE), rs -> {
+                    try {
+                        writer.writeValue(gen, RoutineRowMapper.INSTANCE.mapRow(rs, 0));
+                        gen.writeRaw('\n');
+                        // first row goes out at once, then in blocks to keep syscalls down
+                        if (count[0]++ % NDJSON_FLUSH_ROWS == 0) {
+                            gen.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+                if (logged) logger.info("Routine data streamed: {} record(s)", count[0]);
+            } catch (UncheckedIOException e) {
+                // client went away mid-stream; the cursor is closed by JdbcTemplate
+                throw e.getCause();
             }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).cacheControl(ROUTINE_CACHE_CONTROL);
+        if (!readsReplicaPool()) response.eTag(etag);
+        return response.body(body);
+    }
+
+    // Without dateFrom every Routine read covers the last routine.query.default-window-days only,
+    // so it stays on the hot table, the replica and the search index; null when unreadable
+    private RoutineDateRange routineRange(String dateFrom, String dateTo) {
+        return RoutineDateRange.fromRequest(dateFrom, dateTo, defaultWindowDays, LocalDate.now());
+    }
+
+    // Admins read every row, everyone else only their own; part of the ETag so scopes never share one
+    private static String routineScope(String permission, String employeeID) {
+        return "Admin".equalsIgnoreCase(permission) ? "*" : employeeID;
+    }
+
+    // Whether this request reads from the replica pool. Its ETag is the version this instance has
+    // seen, which a lagging replica may not have yet, so such bodies go out untagged and the next
+    // read fetches them again. If-None-Match is still answered: a tag was only handed out with a
+    // body that matched its version.
+    private static boolean readsReplicaPool() {
+        return ReadWriteRoutingDataSource.current() == ReadWriteRoutingDataSource.Route.REPLICA;
+    }
+
+    // checkNotModified has already set the 304 status; repeat the validators on the response
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(ROUTINE_CACHE_CONTROL).build();
+    }
+
+    // Serves the read from the in-memory replica when it is loaded and the search (if any) can be
+    // answered by the trigram index; null means the caller has to query the database
+    private List<Routine> replicaQuery(String staff, String search, RoutineDateRange range, RoutineSortField sortField,
+                                       boolean ascending, RoutineCursor after, int limit) {
+        if (!routineReplica.isReady()) return null;
+        List<String> matches = null;
+        if (search != null && !search.isEmpty()) {
+            matches = routineSearchIndex.search(search, RoutineQuery.MAX_JOB_IDS);
+            if (matches == null) return null;
+        }
+        return routineReplica.query(staff, matches, range, sortField, ascending, after, limit);
+    }
+
+    // Narrows the query to the search term: through the trigram index when it can answer,
+    // otherwise with LIKE predicates. Returns false when the index shows nothing matches.
+    // The index only knows the hot table, so reads that include the archive always use LIKE.
+    private boolean applySearch(RoutineQuery query, String search, boolean archive) {
+        if (search == null || search.isEmpty()) return true;
+        List<String> matches = archive ? null : routineSearchIndex.search(search, RoutineQuery.MAX_JOB_IDS);
+        if (matches == null) {
+            query.search(search);
+            return true;
         }
+        if (matches.isEmpty()) return false;
+        query.jobIds(matches);
+        return true;
+    }
 
-        // Map frontend field names to database field names
-        Map<String, String> fieldMapping = new HashMap<>();
-        fieldMapping.put("date", "Ticket_Date");
-        fieldMapping.put("sn", "SN");
-        fieldMapping.put("flight", "Flight");
-        fieldMapping.put("from", "From");
-        fieldMapping.put("to", "To");
-        fieldMapping.put("sta", "STA");
-        fieldMapping.put("eta", "ETA");
-        fieldMapping.put("ata", "ATA");
-        fieldMapping.put("remarks", "Remarks");
-        fieldMapping.put("employeeID", "StaffInCharge");
-        fieldMapping.put("supervisor", "Supervisor");
-        fieldMapping.put("jobID", "JobID");
-
-        // Get actual database field name
-        String actualSortBy = fieldMapping.getOrDefault(sortBy, sortBy);
-
-        // Validate sort field to prevent SQL injection
-        if (!fieldMapping.containsKey(sortBy) && !sortBy.equals("Ticket_Date")) {
-            actualSortBy = "Ticket_Date"; // Default sort field
-        }
-
-        // Sort functionality
-        sql.append(" ORDER BY ").append(actualSortBy).append(" ").append(order.equalsIgnoreCase("asc") ? "ASC" : "DESC");
-
-        List<Map<String, Object>> routines = jdbcTemplate.query(sql.toString(), params.toArray(), (rs, rowNum) -> {
-            Map<String, Object> map = new HashMap<>();
-            map.put("JobID", rs.getString("JobID"));
-            map.put("date", rs.getString("Ticket_Date"));
-            map.put("sn", rs.getString("SN"));
-            map.put("flight", rs.getString("Flight"));
-            map.put("from", rs.getString("From"));
-            map.put("to", rs.getString("To"));
-            map.put("sta", rs.getString("STA"));
-            map.put("eta", rs.getString("ETA"));
-            map.put("ata", rs.getString("ATA"));
-            map.put("remarks", rs.getString("Remarks"));
-            map.put("employeeID", rs.getString("StaffInCharge"));
-            map.put("supervisor", rs.getString("Supervisor"));
-            return map;
-        });
-        logger.info("Routine data returned: {} record(s)", routines.size());
-        return routines;
+    // Server-Sent Events with the changes to the rows this employee can see (see RoutineChangeFeed)
+    @GetMapping(value = "/routine/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> routineChanges(@RequestParam String employeeID) {
+        String permission;
+        try {
+            permission = permissionService.getPermission(employeeID);
+        } catch (EmptyResultDataAccessException ex) {
+            // not in EmployeeInfo
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        SseEmitter emitter = routineChangeFeed.subscribe(employeeID, "Admin".equalsIgnoreCase(permission));
+        if (emitter == null) {
+            logger.warn("Routine change feed full, rejected [{}]", employeeID);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok().header(HttpHeaders.CACHE_CONTROL, "no-cache").body(emitter);
     }
 
     @PutMapping("/routine/{jobId}")
@@ -141,19 +347,21 @@ public class DashboardController {
             @RequestBody Map<String, Object> routineData,
             @RequestParam String employeeID
     ) {
-        logger.info("Received PUT /api/routine/{} from employeeID [{}]", jobId, employeeID);
         // Check permission
-        String roleSql = "SELECT Permission FROM EmployeeInfo WHERE Employee_ID = ?";
-        String permission = jdbcTemplate.queryForObject(roleSql, new Object[]{employeeID}, String.class);
+        String permission = permissionService.getPermission(employeeID);
 
-        logger.info("Routine update requested for JobID [{}] by [{}] (Permission: {})", jobId, employeeID, permission);
+        if (logSampler.sample("routine.write")) {
+            logger.info("Routine update requested for JobID [{}] by [{}] (Permission: {})", jobId, employeeID, permission);
+        }
 
-        // Prepare SQL update statement
+        // Prepare SQL update statement; OUTPUT returns who could see the row until now, for the
+        // change feed, from the same statement so no concurrent write lands in between
         String sql = "UPDATE Routine SET " +
                 "Ticket_Date = ?, SN = ?, Flight = ?, [From] = ?, [To] = ?, STA = ?, ETA = ?, ATA = ?, Remarks = ?, StaffInCharge = ?, Supervisor = ? " +
+                "OUTPUT deleted.StaffInCharge " +
                 "WHERE JobID = ?";
 
-        int updated = jdbcTemplate.update(sql,
+        List<String> previous = sqlMetrics.time(SqlMetrics.ROUTINE_UPDATE, () -> jdbcTemplate.queryForList(sql, String.class,
                 routineData.get("date"),
                 routineData.get("sn"),
                 routineData.get("flight"),
@@ -166,14 +374,31 @@ public class DashboardController {
                 routineData.get("employeeID"),
                 routineData.get("supervisor"),
                 jobId
-        );
+        ));
+        int updated = previous.size();
+        String previousStaff = updated > 0 ? previous.get(0) : null;
 
         Map<String, Object> result = new HashMap<>();
         if (updated > 0) {
-            logger.info("Routine for JobID [{}] updated successfully.", jobId);
+            eventPublisher.publishEvent(RoutineChangedEvent.updated(Routine.fromInsertArgs(new Object[]{
+                    jobId,
+                    RoutineValues.parseDate(Objects.toString(routineData.get("date"), "")),
+                    routineData.get("sn"),
+                    routineData.get("flight"),
+                    routineData.get("from"),
+                    routineData.get("to"),
+                    RoutineValues.parseTime(Objects.toString(routineData.get("sta"), "")),
+                    RoutineValues.parseTime(Objects.toString(routineData.get("eta"), "")),
+                    RoutineValues.parseTime(Objects.toString(routineData.get("ata"), "")),
+                    routineData.get("remarks"),
+                    routineData.get("employeeID"),
+                    routineData.get("supervisor")
+            }), previousStaff));
+            auditLog.record("routine.update", employeeID, jobId, true, null);
             result.put("success", true);
             result.put("message", "Routine updated successfully.");
         } else {
+            auditLog.record("routine.update", employeeID, jobId, false, "not found");
             logger.warn("Routine for JobID [{}] update failed.", jobId);
             result.put("success", false);
             result.put("message", "Routine update failed.");
@@ -182,73 +407,56 @@ public class DashboardController {
     }
 
     @GetMapping("/routine/export")
-    public ResponseEntity<byte[]> exportRoutine(@RequestParam String employeeID) {
-        logger.info("Routine Excel export requested by [{}]", employeeID);
+    public ResponseEntity<StreamingResponseBody> exportRoutine(
+        @RequestParam String employeeID,
+        @RequestParam(required = false) String dateFrom,
+        @RequestParam(required = false) String dateTo,
+        WebRequest webRequest
+    ) {
+        logger.info("Routine Excel export requested by [{}], dateFrom [{}], dateTo [{}]", employeeID, dateFrom, dateTo);
+
+        RoutineDateRange range = routineRange(dateFrom, dateTo);
+        if (range == null) {
+            logger.warn("Rejected routine export date range [{}] - [{}]", dateFrom, dateTo);
+            return ResponseEntity.badRequest().build();
+        }
+        boolean archive = routineArchiver.reaches(range);
 
         // Get routines for user or admin
-        String roleSql = "SELECT Permission FROM EmployeeInfo WHERE Employee_ID = ?";
-        String permission = jdbcTemplate.queryForObject(roleSql, new Object[]{employeeID}, String.class);
-
-        String sql;
-        Object[] params;
-        if ("Admin".equalsIgnoreCase(permission)) {
-            sql = "SELECT JobID, Ticket_Date, SN, Flight, [From], [To], STA, ETA, ATA, Remarks, StaffInCharge, Supervisor FROM Routine ORDER BY Ticket_Date DESC";
-            params = new Object[]{};
-        } else {
-            sql = "SELECT JobID, Ticket_Date, SN, Flight, [From], [To], STA, ETA, ATA, Remarks, StaffInCharge, Supervisor FROM Routine WHERE StaffInCharge = ? ORDER BY Ticket_Date DESC";
-            params = new Object[]{employeeID};
-        }
-        List<Map<String, Object>> routines = jdbcTemplate.queryForList(sql, params);
-
-        // Create Excel workbook
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Routine");
-            Row header = sheet.createRow(0);
-            String[] columns = {"JobID", "Date", "SN", "Flight", "From", "To", "STA", "ETA", "ATA", "Remarks", "StaffInCharge", "Supervisor"};
-            for (int i = 0; i < columns.length; i++) {
-                header.createCell(i).setCellValue(columns[i]);
-            }
-            for (int i = 0; i < routines.size(); i++) {
-                Map<String, Object> r = routines.get(i);
-                Row row = sheet.createRow(i + 1);
-                row.createCell(0).setCellValue(String.valueOf(r.get("JobID")));
-                row.createCell(1).setCellValue(String.valueOf(r.get("Ticket_Date")));
-                row.createCell(2).setCellValue(String.valueOf(r.get("SN")));
-                row.createCell(3).setCellValue(String.valueOf(r.get("Flight")));
-                row.createCell(4).setCellValue(String.valueOf(r.get("From")));
-                row.createCell(5).setCellValue(String.valueOf(r.get("To")));
-                row.createCell(6).setCellValue(String.valueOf(r.get("STA")));
-                row.createCell(7).setCellValue(String.valueOf(r.get("ETA")));
-                row.createCell(8).setCellValue(String.valueOf(r.get("ATA")));
-                row.createCell(9).setCellValue(String.valueOf(r.get("Remarks")));
-                row.createCell(10).setCellValue(String.valueOf(r.get("StaffInCharge")));
-                row.createCell(11).setCellValue(String.valueOf(r.get("Supervisor")));
-            }
-            for (int i = 0; i < columns.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
-            // Write to byte array
-            java.io.ByteArrayOutputStream bos = new java.io.ByteArrayOutputStream();
-            workbook.write(bos);
-            byte[] excelBytes = bos.toByteArray();
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-            headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=routine.xlsx");
-            return ResponseEntity.ok().headers(headers).body(excelBytes);
-        } catch (Exception e) {
-            logger.error("Excel export failed: {}", e.getMessage());
-            return ResponseEntity.status(500).body(null);
+        String permission = permissionService.getPermission(employeeID);
+        String staffInCharge = "Admin".equalsIgnoreCase(permission) ? null : employeeID;
+
+        String etag = routineDataVersion.etag("xlsx", routineScope(permission, employeeID), range, archive);
+        if (webRequest.checkNotModified(etag)) {
+            logger.info("Routine Excel export for [{}] not modified", employeeID);
+            return notModified(etag);
         }
+
+        // The workbook is written straight to the response while rows are read
+        StreamingResponseBody body = out -> {
+            try {
+                long rows = routineExcelExporter.export(staffInCharge, range, archive, out);
+                logger.info("Routine Excel export for [{}] finished: {} row(s)", employeeID, rows);
+            } catch (Exception e) {
+                logger.error("Excel export failed: {}", e.getMessage());
+                throw e;
+            }
+        };
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+        headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=routine.xlsx");
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().headers(headers).cacheControl(ROUTINE_CACHE_CONTROL);
+        if (!readsReplicaPool()) response.eTag(etag);
+        return response.body(body);
     }
 
     @PostMapping("/routine/import")
     public Map<String, Object> importRoutine(@RequestBody Map<String, Object> routineData, @RequestParam String employeeID) {
-        String roleSql = "SELECT Permission FROM EmployeeInfo WHERE Employee_ID = ?";
         String permission;
         Map<String, Object> result = new HashMap<>();
         try {
-            permission = jdbcTemplate.queryForObject(roleSql, new Object[]{employeeID}, String.class);
+            permission = permissionService.getPermission(employeeID);
         } catch (Exception ex) {
             logger.error("Error checking permission for [{}]: {}", employeeID, ex.getMessage());
             result.put("success", false);
@@ -257,6 +465,7 @@ public class DashboardController {
         }
 
         if (!"Admin".equalsIgnoreCase(permission)) {
+            auditLog.record("routine.create", employeeID, null, false, "not admin");
             result.put("success", false);
             result.put("message", "Only admin can import routines.");
             return result;
@@ -265,26 +474,25 @@ public class DashboardController {
         // Auto-generate JobID (UUID)
         String jobId = UUID.randomUUID().toString();
 
-        String sql = "INSERT INTO Routine (JobID, Ticket_Date, SN, Flight, [From], [To], STA, ETA, ATA, Remarks, StaffInCharge, Supervisor) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-
         try {
-            int inserted = jdbcTemplate.update(sql,
+            Object[] args = {
                     jobId,
-                    parseDate((String)routineData.get("date")),
+                    RoutineValues.parseDate((String)routineData.get("date")),
                     routineData.get("sn"),
                     routineData.get("flight"),
                     routineData.get("from"),
                     routineData.get("to"),
-                    parseTime((String)routineData.get("sta")),
-                    parseTime((String)routineData.get("eta")),
-                    parseTime((String)routineData.get("ata")),
+                    RoutineValues.parseTime((String)routineData.get("sta")),
+                    RoutineValues.parseTime((String)routineData.get("eta")),
+                    RoutineValues.parseTime((String)routineData.get("ata")),
                     routineData.get("remarks"),
                     routineData.get("employeeID"),
                     routineData.get("supervisor")
-            );
+            };
+            int inserted = sqlMetrics.time(SqlMetrics.ROUTINE_INSERT, () -> jdbcTemplate.update(RoutineExcelImporter.INSERT_SQL, args));
             if (inserted > 0) {
-                logger.info("Routine imported with JobID [{}] by admin [{}]", jobId, employeeID);
+                eventPublisher.publishEvent(RoutineChangedEvent.saved(Routine.fromInsertArgs(args)));
+                auditLog.record("routine.create", employeeID, jobId, true, null);
                 result.put("success", true);
                 result.put("message", "Routine imported successfully.");
                 result.put("JobID", jobId);
@@ -304,10 +512,9 @@ public class DashboardController {
     @PostMapping("/routine/import/excel")
     public Map<String, Object> importExcel(@RequestParam("file") MultipartFile file, @RequestParam String employeeID) {
         Map<String, Object> result = new HashMap<>();
-        String roleSql = "SELECT Permission FROM EmployeeInfo WHERE Employee_ID = ?";
         String permission;
         try {
-            permission = jdbcTemplate.queryForObject(roleSql, new Object[]{employeeID}, String.class);
+            permission = permissionService.getPermission(employeeID);
         } catch (Exception ex) {
             logger.error("Error checking permission for [{}]: {}", employeeID, ex.getMessage());
             result.put("success", false);
@@ -320,92 +527,118 @@ public class DashboardController {
             return result;
         }
 
-        int successCount = 0, failCount = 0;
-        try (InputStream is = file.getInputStream(); Workbook workbook = new XSSFWorkbook(is)) {
-            Sheet sheet = workbook.getSheetAt(0);
-            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                Row row = sheet.getRow(i);
-                if (row == null) continue;
-                try {
-                    String jobId = UUID.randomUUID().toString();
-                    String sql = "INSERT INTO Routine (JobID, Ticket_Date, SN, Flight, [From], [To], STA, ETA, ATA, Remarks, StaffInCharge, Supervisor) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-                    jdbcTemplate.update(sql,
-                        jobId,
-                        parseDate(getCell(row, 1)), // Ticket_Date as java.sql.Date
-                        getCell(row, 2), // SN
-                        getCell(row, 3), // Flight
-                        getCell(row, 4), // From
-                        getCell(row, 5), // To
-                        parseTime(getCell(row, 6)), // STA as java.sql.Time
-                        parseTime(getCell(row, 7)), // ETA as java.sql.Time
-                        parseTime(getCell(row, 8)), // ATA as java.sql.Time
-                        getCell(row, 9), // Remarks
-                        getCell(row, 10), // StaffInCharge
-                        getCell(row, 11)  // Supervisor
-                    );
-                    logger.info("Excel import: Row {} imported with JobID [{}] by [{}]", i, jobId, employeeID);
-                    successCount++;
-                } catch (Exception ex) {
-                    logger.error("Excel row import failed at row {}: {}", i, ex.getMessage());
-                    failCount++;
-                }
-            }
+        // The upload is spooled to a temp file that the import job reads with SAX and deletes when done
+        submitImport(file, employeeID, ImportJob.Format.XLSX, result);
+        return result;
+    }
+
+    // Large schedule feeds as CSV (same columns as the Excel export), written through SQL Server
+    // bulk copy and a MERGE that skips duplicates; runs as an import job like the Excel upload
+    @PostMapping("/routine/import/csv")
+    public Map<String, Object> importCsv(@RequestParam("file") MultipartFile file, @RequestParam String employeeID) {
+        Map<String, Object> result = new HashMap<>();
+        String permission;
+        try {
+            permission = permissionService.getPermission(employeeID);
+        } catch (Exception ex) {
+            logger.error("Error checking permission for [{}]: {}", employeeID, ex.getMessage());
+            result.put("success", false);
+            result.put("message", "Database error: " + ex.getMessage());
+            return result;
+        }
+        if (!"Admin".equalsIgnoreCase(permission)) {
+            result.put("success", false);
+            result.put("message", "Only admin can import routines.");
+            return result;
+        }
+
+        submitImport(file, employeeID, ImportJob.Format.CSV, result);
+        return result;
+    }
+
+    private void submitImport(MultipartFile file, String employeeID, ImportJob.Format format, Map<String, Object> result) {
+        String label = format == ImportJob.Format.CSV ? "CSV" : "Excel";
+        Path upload = null;
+        try {
+            upload = Files.createTempFile("routine-import-", "." + format.name().toLowerCase());
+            file.transferTo(upload);
+            ImportJob job = importJobService.submit(employeeID, file.getOriginalFilename(), upload, format);
+            auditLog.record("routine.import.submit", employeeID, job.id(), true, format + " " + file.getOriginalFilename());
             result.put("success", true);
-            result.put("message", "Excel import finished. Success: " + successCount + ", Failed: " + failCount);
+            result.put("message", label + " import started.");
+            result.put("jobId", job.id());
+            result.put("statusUrl", "/api/routine/import/jobs/" + job.id());
+        } catch (RejectedExecutionException ex) {
+            deleteQuietly(upload);
+            result.put("success", false);
+            result.put("message", "Too many imports are queued, please try again later.");
         } catch (Exception ex) {
-            logger.error("Excel import failed: {}", ex.getMessage());
+            deleteQuietly(upload);
+            logger.error("{} import failed: {}", label, ex.getMessage());
             result.put("success", false);
-            result.put("message", "Excel import failed: " + ex.getMessage());
+            result.put("message", label + " import failed: " + ex.getMessage());
         }
+    }
+
+    // Rows processed/failed, throughput and ETA of an import job; the full report once it is done
+    @GetMapping("/routine/import/jobs/{jobId}")
+    public Map<String, Object> importJobStatus(@PathVariable("jobId") String jobId, @RequestParam String employeeID) {
+        Map<String, Object> result = new HashMap<>();
+        ImportJob job = adminImportJob(jobId, employeeID, result);
+        if (job == null) return result;
+        result.putAll(job.toStatus());
+        result.put("success", true);
         return result;
     }
 
-    private String getCell(Row row, int idx) {
-        Cell cell = row.getCell(idx);
-        return cell == null ? "" : cell.toString();
+    @GetMapping("/routine/import/jobs")
+    public Map<String, Object> listImportJobs(@RequestParam String employeeID) {
+        Map<String, Object> result = new HashMap<>();
+        if (!permissionService.isAdmin(employeeID)) {
+            result.put("success", false);
+            result.put("message", "Only admin can view imports.");
+            return result;
+        }
+        result.put("success", true);
+        result.put("running", importJobService.running());
+        result.put("queued", importJobService.queued());
+        result.put("jobs", importJobService.list().stream().map(ImportJob::toStatus).toList());
+        return result;
     }
 
-    // Normalize time to HH:mm:ss format
-    private String normalizeTime(String time) {
-        if (time == null || time.isEmpty()) return "";
-        // If already in HH:mm:ss, return as is
-        if (time.matches("\\d{2}:\\d{2}:\\d{2}")) return time;
-        // If in H:mm:ss or HH:mm, pad as needed
-        String[] parts = time.split(":");
-        if (parts.length == 3) {
-            String h = parts[0].length() == 1 ? "0" + parts[0] : parts[0];
-            String m = parts[1].length() == 1 ? "0" + parts[1] : parts[1];
-            String s = parts[2].length() == 1 ? "0" + parts[2] : parts[2];
-            return h + ":" + m + ":" + s;
-        }
-        if (parts.length == 2) {
-            String h = parts[0].length() == 1 ? "0" + parts[0] : parts[0];
-            String m = parts[1].length() == 1 ? "0" + parts[1] : parts[1];
-            return h + ":" + m + ":00";
-        }
-        if (parts.length == 1) {
-            String h = parts[0].length() == 1 ? "0" + parts[0] : parts[0];
-            return h + ":00:00";
-        }
-        return time;
+    @DeleteMapping("/routine/import/jobs/{jobId}")
+    public Map<String, Object> cancelImportJob(@PathVariable("jobId") String jobId, @RequestParam String employeeID) {
+        Map<String, Object> result = new HashMap<>();
+        ImportJob job = adminImportJob(jobId, employeeID, result);
+        if (job == null) return result;
+        boolean cancelled = importJobService.cancel(job);
+        result.put("success", cancelled);
+        result.put("message", cancelled ? "Import cancellation requested." : "Import already finished.");
+        result.put("state", job.state());
+        return result;
     }
 
-    private java.sql.Date parseDate(String dateStr) {
-        try {
-            return java.sql.Date.valueOf(dateStr.trim()); // expects yyyy-MM-dd
-        } catch (Exception e) {
-            logger.warn("Invalid date format: {}", dateStr);
+    // The job when the caller is an Admin and it exists; otherwise null with the reason in result
+    private ImportJob adminImportJob(String jobId, String employeeID, Map<String, Object> result) {
+        if (!permissionService.isAdmin(employeeID)) {
+            result.put("success", false);
+            result.put("message", "Only admin can view or cancel imports.");
             return null;
         }
+        ImportJob job = importJobService.get(jobId);
+        if (job == null) {
+            result.put("success", false);
+            result.put("message", "Import job not found.");
+        }
+        return job;
     }
 
-    private java.sql.Time parseTime(String timeStr) {
+    private void deleteQuietly(Path path) {
+        if (path == null) return;
         try {
-            String normalized = normalizeTime(timeStr.trim());
-            return java.sql.Time.valueOf(normalized); // expects HH:mm:ss
-        } catch (Exception e) {
-            logger.warn("Invalid time format: {}", timeStr);
-            return null;
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Could not delete temp file {}: {}", path, e.getMessage());
         }
     }
 
@@ -414,12 +647,10 @@ public class DashboardController {
             @PathVariable("jobId") String jobId,
             @RequestParam String employeeID
     ) {
-        logger.info("Received DELETE /api/routine/{} from employeeID [{}]", jobId, employeeID);
         // Check permission
-        String roleSql = "SELECT Permission FROM EmployeeInfo WHERE Employee_ID = ?";
         String permission;
         try {
-            permission = jdbcTemplate.queryForObject(roleSql, new Object[]{employeeID}, String.class);
+            permission = permissionService.getPermission(employeeID);
         } catch (Exception ex) {
             logger.error("Error checking permission for [{}]: {}", employeeID, ex.getMessage());
             Map<String, Object> result = new HashMap<>();
@@ -430,16 +661,17 @@ public class DashboardController {
 
         Map<String, Object> result = new HashMap<>();
         if (!"Admin".equalsIgnoreCase(permission)) {
+            auditLog.record("routine.delete", employeeID, jobId, false, "not admin");
             logger.warn("Delete routine denied for [{}] (not admin)", employeeID);
             result.put("success", false);
             result.put("message", "Only admin can delete routines.");
             return result;
         }
 
-        String sql = "DELETE FROM Routine WHERE JobID = ?";
-        int deleted;
+        String sql = "DELETE FROM Routine OUTPUT deleted.StaffInCharge WHERE JobID = ?";
+        List<String> previous;
         try {
-            deleted = jdbcTemplate.update(sql, jobId);
+            previous = sqlMetrics.time(SqlMetrics.ROUTINE_DELETE, () -> jdbcTemplate.queryForList(sql, String.class, jobId));
         } catch (Exception ex) {
             logger.error("Error deleting routine with JobID [{}]: {}", jobId, ex.getMessage());
             result.put("success", false);
@@ -447,8 +679,9 @@ public class DashboardController {
             return result;
         }
 
-        if (deleted > 0) {
-            logger.info("Routine with JobID [{}] deleted by admin [{}]", jobId, employeeID);
+        if (!previous.isEmpty()) {
+            eventPublisher.publishEvent(RoutineChangedEvent.deleted(jobId, previous.get(0)));
+            auditLog.record("routine.delete", employeeID, jobId, true, null);
             result.put("success", true);
             result.put("message", "Routine deleted successfully.");
         } else {
@@ -459,37 +692,168 @@ public class DashboardController {
         return result;
     }
 
+    // Bulk partial updates and deletes in one transaction, e.g. reassigning a day's roster:
+    // {"updates": [{"jobId": "...", "employeeID": "E123"}, ...], "deletes": ["jobId", ...]}
+    @PostMapping("/routine/bulk")
+    public Map<String, Object> bulkRoutine(@RequestBody Map<String, Object> body, @RequestParam String employeeID) {
+        Map<String, Object> result = new HashMap<>();
+        String permission;
+        try {
+            permission = permissionService.getPermission(employeeID);
+        } catch (Exception ex) {
+            logger.error("Error checking permission for [{}]: {}", employeeID, ex.getMessage());
+            result.put("success", false);
+            result.put("message", "Database error: " + ex.getMessage());
+            return result;
+        }
+        if (!"Admin".equalsIgnoreCase(permission)) {
+            auditLog.record("routine.bulk", employeeID, null, false, "not admin");
+            logger.warn("Bulk routine change denied for [{}] (not admin)", employeeID);
+            result.put("success", false);
+            result.put("message", "Only admin can bulk update or delete routines.");
+            return result;
+        }
+
+        List<Map<String, Object>> updates = new ArrayList<>();
+        List<String> deletes = new ArrayList<>();
+        if (body.get("updates") instanceof List<?> items) {
+            for (Object item : items) {
+                if (item instanceof Map<?, ?> fields) {
+                    Map<String, Object> update = new LinkedHashMap<>();
+                    fields.forEach((k, v) -> update.put(String.valueOf(k), v));
+                    updates.add(update);
+                }
+            }
+        }
+        if (body.get("deletes") instanceof List<?> ids) {
+            for (Object id : ids) {
+                deletes.add(id == null ? null : id.toString());
+            }
+        }
+        if (updates.size() + deletes.size() > routineBulkService.maxItems()) {
+            result.put("success", false);
+            result.put("message", "At most " + routineBulkService.maxItems() + " items per request.");
+            return result;
+        }
+
+        try {
+            List<Map<String, Object>> results = routineBulkService.apply(updates, deletes);
+            long succeeded = results.stream().filter(r -> Boolean.TRUE.equals(r.get("success"))).count();
+            auditLog.record("routine.bulk", employeeID, null, true,
+                    updates.size() + " update(s), " + deletes.size() + " delete(s), " + succeeded + " succeeded");
+            result.put("success", true);
+            result.put("message", "Bulk change finished. Success: " + succeeded + ", Failed: " + (results.size() - succeeded));
+            result.put("successCount", succeeded);
+            result.put("failCount", results.size() - succeeded);
+            result.put("results", results);
+        } catch (Exception ex) {
+            auditLog.record("routine.bulk", employeeID, null, false, "rolled back");
+            logger.error("Bulk routine change by [{}] rolled back: {}", employeeID, ex.getMessage());
+            result.put("success", false);
+            result.put("message", "Bulk change failed and was rolled back: " + ex.getMessage());
+        }
+        return result;
+    }
+
+    // --- Flight-operations aggregates (Admin only), served from RoutineAggregates ---
+
+    // Total flights, flights per station and ATA-vs-STA/ETA delay distributions
+    @GetMapping("/aggregates")
+    public Map<String, Object> getAggregates(@RequestParam String employeeID) {
+        Map<String, Object> result = new HashMap<>();
+        if (!aggregatesAvailable(employeeID, result)) return result;
+        result.putAll(routineAggregates.summary());
+        result.put("success", true);
+        return result;
+    }
+
+    // Flights per day and station between dateFrom and dateTo (yyyy-MM-dd, default the last 30 days)
+    @GetMapping("/aggregates/days")
+    public Map<String, Object> getDailyAggregates(
+            @RequestParam String employeeID,
+            @RequestParam(required = false) String dateFrom,
+            @RequestParam(required = false) String dateTo
+    ) {
+        Map<String, Object> result = new HashMap<>();
+        if (!aggregatesAvailable(employeeID, result)) return result;
+        java.sql.Date toDate = RoutineValues.parseDate(dateTo);
+        LocalDate to = toDate == null ? LocalDate.now() : toDate.toLocalDate();
+        java.sql.Date fromDate = RoutineValues.parseDate(dateFrom);
+        LocalDate from = fromDate == null ? to.minusDays(29) : fromDate.toLocalDate();
+        if (from.isAfter(to) || from.plusDays(RoutineAggregates.MAX_DAYS).isBefore(to)) {
+            result.put("success", false);
+            result.put("message", "dateFrom must be before dateTo and at most " + RoutineAggregates.MAX_DAYS + " days apart.");
+            return result;
+        }
+        result.put("success", true);
+        result.put("dateFrom", from.toString());
+        result.put("dateTo", to.toString());
+        result.put("days", routineAggregates.days(from, to));
+        return result;
+    }
+
+    // Assigned, landed and late flights per staff member
+    @GetMapping("/aggregates/staff")
+    public Map<String, Object> getStaffWorkload(@RequestParam String employeeID) {
+        Map<String, Object> result = new HashMap<>();
+        if (!aggregatesAvailable(employeeID, result)) return result;
+        result.put("success", true);
+        result.put("lateMinutes", RoutineAggregates.LATE_MINUTES);
+        result.put("staff", routineAggregates.staffWorkload());
+        return result;
+    }
+
+    private boolean aggregatesAvailable(String employeeID, Map<String, Object> result) {
+        if (!permissionService.isAdmin(employeeID)) {
+            result.put("success", false);
+            result.put("message", "Only admin can view aggregates.");
+            return false;
+        }
+        if (!routineAggregates.isReady()) {
+            result.put("success", false);
+            result.put("message", "Aggregates are still loading, please try again shortly.");
+            return false;
+        }
+        return true;
+    }
+
     // --- User Maintenance Endpoints ---
 
-    // a. List all users
+    // a. List all users (format=compact for a CompactTable)
     @GetMapping("/users")
-    public List<Map<String, Object>> listUsers() {
-        logger.info("Received GET /api/users request");
+    public ResponseEntity<?> listUsers(@RequestParam(required = false) String format) {
         String sql = "SELECT Employee_ID, Name, Encry_Pw AS Password, Permission FROM EmployeeInfo";
-        List<Map<String, Object>> users = jdbcTemplate.query(sql, (rs, rowNum) -> {
-            Map<String, Object> map = new HashMap<>();
-            map.put("employeeID", rs.getString("Employee_ID"));
-            map.put("name", rs.getString("Name"));
-            map.put("password", rs.getString("Password"));
-            map.put("permission", rs.getString("Permission"));
-            return map;
-        });
-        logger.info("Returned {} users", users.size());
-        return users;
+        // on the primary, so the list shows a user edit right away whoever made it
+        List<Employee> users = sqlMetrics.time(SqlMetrics.USER_SELECT, () -> ReadWriteRoutingDataSource.onPrimary(
+                () -> jdbcTemplate.query(sql, (rs, rowNum) -> new Employee(
+                        rs.getString(1),
+                        rs.getString(2),
+                        rs.getString(3),
+                        rs.getString(4)
+                ))));
+        if (logSampler.sample("users.read")) {
+            logger.info("Returned {} users", users.size());
+        }
+        return ResponseEntity.ok(COMPACT_FORMAT.equalsIgnoreCase(format) ? CompactTable.employees(users) : users);
     }
 
     // b. Add a new user
     @PostMapping("/users")
-    public Map<String, Object> addUser(@RequestBody Map<String, Object> userData) {
+    public Map<String, Object> addUser(@RequestBody Map<String, Object> userData, HttpServletRequest httpRequest) {
+        // the user endpoints do not say who is acting, so the audit records where the request came from
+        String actor = httpRequest.getRemoteAddr();
         Map<String, Object> result = new HashMap<>();
         try {
             String sql = "INSERT INTO EmployeeInfo (Employee_ID, Name, Encry_Pw, Permission) VALUES (?, ?, ?, ?)";
-            int inserted = jdbcTemplate.update(sql,
+            int inserted = sqlMetrics.time(SqlMetrics.USER_WRITE, () -> jdbcTemplate.update(sql,
                 userData.get("employeeID"),
                 userData.get("name"),
                 userData.get("password"),
                 userData.get("permission")
-            );
+            ));
+            permissionService.invalidate(Objects.toString(userData.get("employeeID"), null));
+            auditLog.record("user.create", actor, Objects.toString(userData.get("employeeID"), null), inserted > 0,
+                    "permission=" + userData.get("permission"));
             if (inserted > 0) {
                 result.put("success", true);
                 result.put("message", "User added successfully.");
@@ -498,6 +862,7 @@ public class DashboardController {
                 result.put("message", "Failed to add user.");
             }
         } catch (Exception ex) {
+            auditLog.record("user.create", actor, Objects.toString(userData.get("employeeID"), null), false, "error");
             logger.error("Error adding user: {}", ex.getMessage());
             result.put("success", false);
             result.put("message", "Error adding user: " + ex.getMessage());
@@ -509,17 +874,21 @@ public class DashboardController {
     @PutMapping("/users/{employeeID}")
     public Map<String, Object> editUser(
             @PathVariable("employeeID") String employeeID,
-            @RequestBody Map<String, Object> userData
+            @RequestBody Map<String, Object> userData,
+            HttpServletRequest httpRequest
     ) {
+        String actor = httpRequest.getRemoteAddr();
         Map<String, Object> result = new HashMap<>();
         try {
             String sql = "UPDATE EmployeeInfo SET Name = ?, Encry_Pw = ?, Permission = ? WHERE Employee_ID = ?";
-            int updated = jdbcTemplate.update(sql,
+            int updated = sqlMetrics.time(SqlMetrics.USER_WRITE, () -> jdbcTemplate.update(sql,
                 userData.get("name"),
                 userData.get("password"),
                 userData.get("permission"),
                 employeeID
-            );
+            ));
+            permissionService.invalidate(employeeID);
+            auditLog.record("user.update", actor, employeeID, updated > 0, "permission=" + userData.get("permission"));
             if (updated > 0) {
                 result.put("success", true);
                 result.put("message", "User updated successfully.");
@@ -528,6 +897,7 @@ public class DashboardController {
                 result.put("message", "User not found or not updated.");
             }
         } catch (Exception ex) {
+            auditLog.record("user.update", actor, employeeID, false, "error");
             logger.error("Error updating user: {}", ex.getMessage());
             result.put("success", false);
             result.put("message", "Error updating user: " + ex.getMessage());
@@ -1,37 +1,63 @@
 package com.example.K1;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
-import java.util.Map;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+/**
+ * Connectivity probe at boot: one SELECT 1, logged with how long it took.
+ *
+ * The probe runs on its own virtual thread and startup waits for it at most
+ * k1.startup.db-probe.timeout, so an unreachable database is reported without holding up
+ * the rest of the boot for the pool's full connection timeout. It never reads table data.
+ */
 @Component
 public class DbConnectionTest implements CommandLineRunner {
 
+    private static final Logger logger = LoggerFactory.getLogger(DbConnectionTest.class);
+
     private final JdbcTemplate jdbcTemplate;
 
+    @Value("${k1.startup.db-probe.enabled:true}")
+    private boolean enabled;
+
+    @Value("${k1.startup.db-probe.timeout:2s}")
+    private Duration timeout;
+
     public DbConnectionTest(JdbcTemplate jdbcTemplate) {
         this.jdbcTemplate = jdbcTemplate;
     }
 
     @Override
-    public void run(String... args) throws Exception {
-        try {
-            Integer result = jdbcTemplate.queryForObject("SELECT 1", Integer.class);
-            System.out.println("✅ Database connection successful! Result: " + result);
-
-            // Fetch and log EmployeeInfo table
-            List<Map<String, Object>> rows = jdbcTemplate.queryForList("SELECT * FROM EmployeeInfo");
-            System.out.println("=== EmployeeInfo Table ===");
-            for (Map<String, Object> row : rows) {
-                System.out.println(row);
+    public void run(String... args) {
+        if (!enabled) return;
+        long start = System.nanoTime();
+        CompletableFuture<Integer> probe = new CompletableFuture<>();
+        Thread.ofVirtual().name("db-probe").start(() -> {
+            try {
+                probe.complete(jdbcTemplate.queryForObject("SELECT 1", Integer.class));
+            } catch (Throwable t) {
+                probe.completeExceptionally(t);
             }
-            System.out.println("=========================");
-        } catch (Exception e) {
-            System.err.println("❌ Database connection failed: " + e.getMessage());
-            e.printStackTrace();
+        });
+        try {
+            probe.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            logger.info("Database connection successful in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (TimeoutException e) {
+            logger.warn("Database did not answer within {} ms; continuing startup", timeout.toMillis());
+        } catch (ExecutionException e) {
+            logger.error("Database connection failed: {}", e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 }
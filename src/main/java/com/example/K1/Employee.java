@@ -0,0 +1,5 @@
+package com.example.K1;
+
+// One EmployeeInfo row as returned by GET /api/users
+public record Employee(String employeeID, String name, String password, String permission) {
+}
@@ -0,0 +1,172 @@
+package com.example.K1;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Future;
+
+/**
+ * One background Excel or CSV import. Progress fields are written by the importing thread after
+ * each chunk and read by status requests, so they are volatile; the final report is only
+ * published together with the terminal state.
+ */
+final class ImportJob implements RoutineExcelImporter.Progress {
+
+    enum State { QUEUED, RUNNING, DONE, FAILED, CANCELLED }
+
+    enum Format { XLSX, CSV }
+
+    private final String id = UUID.randomUUID().toString();
+    private final String submittedBy;
+    private final String fileName;
+    private final Path upload;
+    private final Format format;
+    private final Instant submittedAt = Instant.now();
+
+    private volatile State state = State.QUEUED;
+    private volatile boolean cancelRequested;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile long sheetBytes = -1;
+    private volatile long sheetBytesRead;
+    private volatile long rowsSucceeded;
+    private volatile long rowsFailed;
+    private volatile ImportReport report;
+    private volatile String error;
+    private volatile Future<?> future;
+
+    ImportJob(String submittedBy, String fileName, Path upload, Format format) {
+        this.submittedBy = submittedBy;
+        this.fileName = fileName;
+        this.upload = upload;
+        this.format = format;
+    }
+
+    String id() {
+        return id;
+    }
+
+    String submittedBy() {
+        return submittedBy;
+    }
+
+    Instant submittedAt() {
+        return submittedAt;
+    }
+
+    Path upload() {
+        return upload;
+    }
+
+    Format format() {
+        return format;
+    }
+
+    State state() {
+        return state;
+    }
+
+    Instant finishedAt() {
+        return finishedAt;
+    }
+
+    boolean isFinished() {
+        State s = state;
+        return s == State.DONE || s == State.FAILED || s == State.CANCELLED;
+    }
+
+    Future<?> future() {
+        return future;
+    }
+
+    void future(Future<?> future) {
+        this.future = future;
+    }
+
+    void requestCancel() {
+        cancelRequested = true;
+    }
+
+    void running() {
+        startedAt = Instant.now();
+        state = State.RUNNING;
+    }
+
+    void finished(State finalState, ImportReport finalReport, String message) {
+        if (finalReport != null) {
+            rowsSucceeded = finalReport.successCount();
+            rowsFailed = finalReport.failCount();
+        }
+        report = finalReport;
+        error = message;
+        finishedAt = Instant.now();
+        state = finalState;
+    }
+
+    @Override
+    public void started(long sheetBytes) {
+        this.sheetBytes = sheetBytes;
+    }
+
+    @Override
+    public void chunkWritten(long sheetBytesRead, ImportReport report) {
+        this.sheetBytesRead = sheetBytesRead;
+        this.rowsSucceeded = report.successCount();
+        this.rowsFailed = report.failCount();
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelRequested;
+    }
+
+    // Status as returned by GET /api/routine/import/jobs/{jobId}
+    Map<String, Object> toStatus() {
+        State s = state;
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("jobId", id);
+        status.put("state", s);
+        status.put("fileName", fileName);
+        status.put("format", format);
+        status.put("submittedBy", submittedBy);
+        status.put("submittedAt", submittedAt.toString());
+        status.put("startedAt", startedAt == null ? null : startedAt.toString());
+        status.put("finishedAt", finishedAt == null ? null : finishedAt.toString());
+        long succeeded = rowsSucceeded;
+        long failed = rowsFailed;
+        status.put("rowsProcessed", succeeded + failed);
+        status.put("rowsFailed", failed);
+
+        Instant start = startedAt;
+        if (start != null) {
+            Instant end = finishedAt == null ? Instant.now() : finishedAt;
+            double seconds = Math.max(0.001, Duration.between(start, end).toMillis() / 1000.0);
+            status.put("rowsPerSecond", Math.round((succeeded + failed) / seconds));
+            // The sheet XML (or CSV) is read front to back, so the share of bytes read tracks the share of rows
+            long total = sheetBytes;
+            long read = sheetBytesRead;
+            if (s == State.DONE) {
+                status.put("percentComplete", 100);
+                status.put("etaSeconds", 0);
+            } else if (s == State.RUNNING && total > 0 && read > 0) {
+                double fraction = Math.min(1.0, (double) read / total);
+                status.put("percentComplete", Math.round(fraction * 100));
+                status.put("etaSeconds", Math.round(seconds * (1 - fraction) / fraction));
+            }
+        }
+        ImportReport r = report;
+        if (r != null) {
+            status.put("errors", r.errors());
+            status.put("duplicateCount", r.duplicateCount());
+            status.put("invalidValueCount", r.invalidValueCount());
+            status.put("warnings", r.warnings());
+        }
+        if (error != null) {
+            status.put("message", error);
+        }
+        return status;
+    }
+}
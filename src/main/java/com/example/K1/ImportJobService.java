@@ -0,0 +1,162 @@
+package com.example.K1;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs Excel and CSV imports in the background so the upload request returns a job ID right away.
+ *
+ * At most routine.import.max-concurrent-jobs imports write to the database at once; up to
+ * routine.import.queue-capacity more wait their turn and further uploads are rejected.
+ * Finished jobs stay queryable for routine.import.job-retention.
+ */
+@Service
+class ImportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportJobService.class);
+
+    @Autowired
+    private RoutineExcelImporter routineExcelImporter;
+
+    @Autowired
+    private RoutineCsvImporter routineCsvImporter;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Value("${routine.import.max-concurrent-jobs:2}")
+    private int maxConcurrentJobs;
+
+    @Value("${routine.import.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Value("${routine.import.job-retention:1h}")
+    private Duration retention;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void start() {
+        executor = new ThreadPoolExecutor(maxConcurrentJobs, maxConcurrentJobs, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("routine-import-"));
+    }
+
+    @PreDestroy
+    void stop() {
+        jobs.values().forEach(ImportJob::requestCancel);
+        executor.shutdownNow();
+    }
+
+    // Takes ownership of the spooled upload; throws RejectedExecutionException when the queue is full
+    ImportJob submit(String employeeID, String fileName, Path upload, ImportJob.Format format) {
+        pruneFinished();
+        ImportJob job = new ImportJob(employeeID, fileName, upload, format);
+        jobs.put(job.id(), job);
+        try {
+            job.future(executor.submit(() -> run(job)));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id());
+            throw e;
+        }
+        logger.info("{} import job {} queued by [{}] ({})", format, job.id(), employeeID, fileName);
+        return job;
+    }
+
+    ImportJob get(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    // Newest first
+    List<ImportJob> list() {
+        List<ImportJob> all = new ArrayList<>(jobs.values());
+        all.sort(Comparator.comparing(ImportJob::submittedAt).reversed());
+        return all;
+    }
+
+    // A queued job never starts; a running one stops after its current chunk. Returns false when already finished.
+    boolean cancel(ImportJob job) {
+        if (job.isFinished()) return false;
+        job.requestCancel();
+        if (job.state() == ImportJob.State.QUEUED && job.future() != null && job.future().cancel(false)) {
+            executor.remove((Runnable) job.future());
+            job.finished(ImportJob.State.CANCELLED, null, "Cancelled before it started.");
+            deleteQuietly(job.upload());
+        }
+        logger.info("Import job {} cancel requested", job.id());
+        return true;
+    }
+
+    int running() {
+        return executor.getActiveCount();
+    }
+
+    int queued() {
+        return executor.getQueue().size();
+    }
+
+    private void run(ImportJob job) {
+        if (job.isCancelled()) { // cancelled while queued, just as it was taken off the queue
+            job.finished(ImportJob.State.CANCELLED, null, "Cancelled before it started.");
+            deleteQuietly(job.upload());
+            return;
+        }
+        job.running();
+        try {
+            ImportReport report = job.format() == ImportJob.Format.CSV
+                    ? routineCsvImporter.importCsv(job.upload(), job)
+                    : routineExcelImporter.importWorkbook(job.upload(), job);
+            job.finished(ImportJob.State.DONE, report,
+                    "Import finished. Success: " + report.successCount() + ", Failed: " + report.failCount());
+            logger.info("{} import job {} by [{}] finished. Success: {}, Failed: {} (duplicates: {})",
+                    job.format(), job.id(), job.submittedBy(), report.successCount(), report.failCount(), report.duplicateCount());
+            auditLog.record("routine.import", job.submittedBy(), job.id(), true,
+                    report.successCount() + " inserted, " + report.failCount() + " failed");
+        } catch (CancellationException e) {
+            job.finished(ImportJob.State.CANCELLED, null, e.getMessage() + "; rows already written are kept.");
+            auditLog.record("routine.import", job.submittedBy(), job.id(), false, "cancelled");
+            logger.info("Import job {} cancelled: {}", job.id(), e.getMessage());
+        } catch (Exception e) {
+            job.finished(ImportJob.State.FAILED, null, "Import failed: " + e.getMessage());
+            auditLog.record("routine.import", job.submittedBy(), job.id(), false, "failed");
+            logger.error("Import job {} failed: {}", job.id(), e.getMessage());
+        } finally {
+            deleteQuietly(job.upload());
+        }
+    }
+
+    private void pruneFinished() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.isFinished() && job.finishedAt().isBefore(cutoff));
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Could not delete temp file {}: {}", path, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.K1;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Outcome of a bulk routine import: counts plus the first MAX_ERRORS failed rows and unreadable values
+final class ImportReport {
+
+    static final int MAX_ERRORS = 200;
+
+    private long successCount;
+    private long failCount;
+    private long invalidValueCount;
+    private long duplicateCount;
+    private final List<Map<String, Object>> errors = new ArrayList<>();
+    private final List<Map<String, Object>> warnings = new ArrayList<>();
+
+    void succeeded(int rows) {
+        successCount += rows;
+    }
+
+    // row is the 1-based row number as shown in Excel
+    void failed(int row, String message) {
+        failCount++;
+        if (errors.size() < MAX_ERRORS) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("row", row);
+            error.put("message", message);
+            errors.add(error);
+        }
+    }
+
+    // A row that was not imported because the same routine already exists; counted as failed too
+    void duplicate(int row, String message) {
+        duplicateCount++;
+        failed(row, message);
+    }
+
+    // A cell that could not be converted; the row is still imported with NULL in that column
+    void invalidValue(int row, String column, String value) {
+        invalidValueCount++;
+        if (warnings.size() < MAX_ERRORS) {
+            Map<String, Object> warning = new HashMap<>();
+            warning.put("row", row);
+            warning.put("column", column);
+            warning.put("value", value);
+            warnings.add(warning);
+        }
+    }
+
+    long successCount() {
+        return successCount;
+    }
+
+    long failCount() {
+        return failCount;
+    }
+
+    List<Map<String, Object>> errors() {
+        return errors;
+    }
+
+    long duplicateCount() {
+        return duplicateCount;
+    }
+
+    long invalidValueCount() {
+        return invalidValueCount;
+    }
+
+    List<Map<String, Object>> warnings() {
+        return warnings;
+    }
+}
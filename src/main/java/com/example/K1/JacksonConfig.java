@@ -0,0 +1,16 @@
+package com.example.K1;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    // Replaces reflective getter calls with generated lambdas when serializing Routine/Employee lists
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
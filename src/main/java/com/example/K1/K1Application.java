@@ -2,12 +2,18 @@ package com.example.K1;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class K1Application {
 
 	public static void main(String[] args) {
-		SpringApplication.run(K1Application.class, args);
+		SpringApplication application = new SpringApplication(K1Application.class);
+		// Records startup steps for /actuator/startup and the StartupTimingReport log
+		application.setApplicationStartup(new BufferingApplicationStartup(4096));
+		application.run(args);
 	}
 
 }
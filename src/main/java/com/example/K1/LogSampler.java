@@ -0,0 +1,97 @@
+package com.example.K1;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rate limit for diagnostic log lines on hot paths: per key (one per call site, e.g.
+ * "routine.read"), at most k1.log.sample.max-per-interval lines pass per
+ * k1.log.sample.interval, the rest are skipped before any message is formatted.
+ *
+ *     if (logSampler.sample("routine.read")) logger.info(...);
+ *
+ * When a key's next interval starts, the number of lines it skipped is logged once, and
+ * k1.log.suppressed{key} counts them. Audit-relevant events go through {@link AuditLog}
+ * instead and are never sampled. Also publishes k1.log.dropped, the events the async log
+ * appender discarded ({@link CountingAsyncAppender}).
+ */
+@Component
+class LogSampler {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogSampler.class);
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Value("${k1.log.sample.max-per-interval:20}")
+    private int maxPerInterval;
+
+    @Value("${k1.log.sample.interval:1s}")
+    private Duration interval;
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void registerDropped() {
+        FunctionCounter.builder("k1.log.dropped", CountingAsyncAppender.DROPPED, LongAdder::sum)
+                .description("Log events discarded because the async appender queue was full").register(registry);
+    }
+
+    // Whether the caller may log this line now
+    boolean sample(String key) {
+        Window window = windows.computeIfAbsent(key, this::window);
+        long skipped;
+        synchronized (window) {
+            long now = System.nanoTime();
+            if (now - window.start < interval.toNanos()) {
+                if (window.count < maxPerInterval) {
+                    window.count++;
+                    return true;
+                }
+                window.suppressed++;
+                window.suppressedTotal++;
+                return false;
+            }
+            skipped = window.suppressed;
+            window.start = now;
+            window.count = 1;
+            window.suppressed = 0;
+        }
+        if (skipped > 0) {
+            logger.info("Suppressed {} [{}] log line(s) in the last {}", skipped, key, interval);
+        }
+        return true;
+    }
+
+    private Window window(String key) {
+        Window window = new Window(System.nanoTime());
+        FunctionCounter.builder("k1.log.suppressed", window, w -> {
+            synchronized (w) {
+                return w.suppressedTotal;
+            }
+        }).description("Diagnostic log lines skipped by LogSampler").tag("key", key).register(registry);
+        return window;
+    }
+
+    private static final class Window {
+        private long start; // System.nanoTime() of the current interval
+        private int count;
+        private long suppressed;
+        private long suppressedTotal;
+
+        Window(long start) {
+            this.start = start;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.K1;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Looks up EmployeeInfo.Permission, which every dashboard endpoint needs before doing
+ * its real work. Results are cached in process for permission.cache.ttl-seconds and the
+ * cache holds at most permission.cache.max-size employees (least recently used go first).
+ * User edits call {@link #invalidate(String)} so a changed permission applies right away.
+ */
+@Service
+public class PermissionService implements MeterBinder {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SqlMetrics sqlMetrics;
+
+    @Value("${permission.cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${permission.cache.max-size:10000}")
+    private int maxSize;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    // Bumped on every invalidation so a lookup that raced with it does not re-cache a stale value
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LinkedHashMap<String, CachedPermission> cache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedPermission> eldest) {
+            if (size() > maxSize) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    public String getPermission(String employeeID) {
+        long now = System.nanoTime();
+        synchronized (cache) {
+            CachedPermission cached = cache.get(employeeID);
+            if (cached != null && cached.expiresAt - now > 0) {
+                hits.increment();
+                return cached.permission;
+            }
+        }
+        misses.increment();
+        long gen = generation.get();
+        String sql = "SELECT Permission FROM EmployeeInfo WHERE Employee_ID = ?";
+        // always the primary: a lagging replica would re-cache a permission an edit just changed
+        String permission = sqlMetrics.time(SqlMetrics.PERMISSION_LOOKUP, () -> ReadWriteRoutingDataSource.onPrimary(
+                () -> jdbcTemplate.queryForObject(sql, new Object[]{employeeID}, String.class)));
+        synchronized (cache) {
+            if (gen == generation.get()) {
+                cache.put(employeeID, new CachedPermission(permission, now + TimeUnit.SECONDS.toNanos(ttlSeconds)));
+            }
+        }
+        return permission;
+    }
+
+    public boolean isAdmin(String employeeID) {
+        return "Admin".equalsIgnoreCase(getPermission(employeeID));
+    }
+
+    // Admin according to the cache only; a missing or expired entry is false. Never queries the
+    // database and does not count as a cache hit or miss.
+    boolean isCachedAdmin(String employeeID) {
+        if (employeeID == null) return false;
+        long now = System.nanoTime();
+        synchronized (cache) {
+            CachedPermission cached = cache.get(employeeID);
+            return cached != null && cached.expiresAt - now > 0 && "Admin".equalsIgnoreCase(cached.permission);
+        }
+    }
+
+    // Drop the cached permission of one employee, e.g. after the user was added or edited
+    public void invalidate(String employeeID) {
+        synchronized (cache) {
+            generation.incrementAndGet();
+            cache.remove(employeeID);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        synchronized (cache) {
+            stats.put("size", cache.size());
+        }
+        stats.put("maxSize", maxSize);
+        stats.put("ttlSeconds", ttlSeconds);
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+
+    // Hit/miss counters and size as k1.permission.cache.* meters
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("k1.permission.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit").register(registry);
+        FunctionCounter.builder("k1.permission.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss").register(registry);
+        FunctionCounter.builder("k1.permission.cache.evictions", evictions, LongAdder::sum).register(registry);
+        Gauge.builder("k1.permission.cache.size", cache, c -> {
+            synchronized (c) {
+                return c.size();
+            }
+        }).register(registry);
+    }
+
+    private static final class CachedPermission {
+        private final String permission;
+        private final long expiresAt; // System.nanoTime() deadline
+
+        CachedPermission(String permission, long expiresAt) {
+            this.permission = permission;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.K1;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Separate connection pools for reads and writes (k1.datasource.read.enabled=true).
+ *
+ * The primary pool is built from spring.datasource.* and spring.datasource.hikari.* as
+ * before; the read pool from k1.datasource.read.*, which takes HikariCP's own property
+ * names (jdbc-url, username, password, maximum-pool-size, connection-timeout, ...). The
+ * application's DataSource routes between them, see {@link ReadWriteRoutingDataSource}
+ * and {@link ReadWriteRoutingInterceptor}. Both pools are still wrapped by the connection
+ * limiter of {@link VirtualThreadConfig}, each sized to its own pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "k1.datasource.read.enabled", havingValue = "true")
+public class ReadWriteDataSourceConfig implements WebMvcConfigurer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadWriteDataSourceConfig.class);
+
+    @Value("${k1.datasource.read-your-writes:5s}")
+    private Duration readYourWrites;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource writeDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("k1.datasource.read")
+    HikariDataSource readDataSource() {
+        return new HikariDataSource();
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(@Qualifier("writeDataSource") DataSource writeDataSource,
+                          @Qualifier("readDataSource") DataSource readDataSource) {
+        logger.info("Routing GET requests to the read pool (read-your-writes window {})", readYourWrites);
+        return new ReadWriteRoutingDataSource(writeDataSource, readDataSource);
+    }
+
+    // Async request processing (StreamingResponseBody) keeps the route of the request that started it
+    @Bean
+    TaskDecorator dataSourceRouteTaskDecorator() {
+        return task -> {
+            ReadWriteRoutingDataSource.Route route = ReadWriteRoutingDataSource.current();
+            return () -> {
+                ReadWriteRoutingDataSource.Route previous = ReadWriteRoutingDataSource.current();
+                ReadWriteRoutingDataSource.set(route);
+                try {
+                    task.run();
+                } finally {
+                    ReadWriteRoutingDataSource.set(previous);
+                }
+            };
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ReadWriteRoutingInterceptor(readYourWrites)).addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.K1;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Sends each connection request either to the primary (write) pool or to the read-replica
+ * pool, depending on the route set for the current thread. Without a route the primary is
+ * used, so background jobs, imports and anything not going through a request stay on it.
+ *
+ * The route is set per request by {@link ReadWriteRoutingInterceptor} and carried over to
+ * async request processing (exports, NDJSON streams) by the TaskDecorator in
+ * {@link ReadWriteDataSourceConfig}. Since the connection is picked when it is first
+ * requested, a transaction stays on the pool it started on.
+ *
+ * Reads that must never see replica lag, such as permissions, which decide what a request may
+ * do, run through {@link #onPrimary(Supplier)} whatever the request's route is.
+ */
+class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private static final ThreadLocal<Route> ROUTE = new ThreadLocal<>();
+
+    ReadWriteRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    static Route current() {
+        return ROUTE.get();
+    }
+
+    // null clears the route (primary)
+    static void set(Route route) {
+        if (route == null) {
+            ROUTE.remove();
+        } else {
+            ROUTE.set(route);
+        }
+    }
+
+    // Runs work on the primary and then restores the current route
+    static <T> T onPrimary(Supplier<T> work) {
+        Route previous = ROUTE.get();
+        ROUTE.set(Route.PRIMARY);
+        try {
+            return work.get();
+        } finally {
+            set(previous);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Route route = ROUTE.get();
+        return route == null ? Route.PRIMARY : route;
+    }
+}
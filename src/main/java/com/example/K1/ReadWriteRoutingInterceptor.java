@@ -0,0 +1,90 @@
+package com.example.K1;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Picks the DataSource route for each API request: GET and HEAD read from the replica,
+ * everything else (and every read it does) uses the primary.
+ *
+ * A client that just changed something reads from the primary for the read-your-writes
+ * window afterwards, so its next read shows the change even while the replica is still
+ * catching up. Clients are told apart by their employeeID parameter, falling back to the
+ * remote address for requests without one (/api/users); behind a proxy that is the client
+ * address from X-Forwarded-For (server.forward-headers-strategy).
+ *
+ * Routine reads that hand out ETags read from the replica like any other GET; the controller
+ * leaves the ETag off bodies the replica pool produced (see DashboardController#readsReplicaPool).
+ */
+class ReadWriteRoutingInterceptor implements AsyncHandlerInterceptor {
+
+    private final long readYourWritesNanos;
+    // client -> System.nanoTime() of its last write request; expired entries are swept once per window
+    private final Map<String, Long> lastWrite = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+
+    ReadWriteRoutingInterceptor(Duration readYourWrites) {
+        this.readYourWritesNanos = readYourWrites.toNanos();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (isRead(request)) {
+            ReadWriteRoutingDataSource.set(readsReplica(request) ? ReadWriteRoutingDataSource.Route.REPLICA
+                    : ReadWriteRoutingDataSource.Route.PRIMARY);
+        } else {
+            recordWrite(request);
+            ReadWriteRoutingDataSource.set(ReadWriteRoutingDataSource.Route.PRIMARY);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!isRead(request)) {
+            // the window starts when the write is done, not when it was received
+            recordWrite(request);
+        }
+        ReadWriteRoutingDataSource.set(null);
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // the async part runs elsewhere with the route it was started with; free this thread
+        ReadWriteRoutingDataSource.set(null);
+    }
+
+    int trackedClients() {
+        return lastWrite.size();
+    }
+
+    private boolean readsReplica(HttpServletRequest request) {
+        Long wroteAt = lastWrite.get(client(request));
+        return wroteAt == null || System.nanoTime() - wroteAt >= readYourWritesNanos;
+    }
+
+    private void recordWrite(HttpServletRequest request) {
+        long now = System.nanoTime();
+        lastWrite.put(client(request), now);
+        long swept = lastSweep.get();
+        if (now - swept >= readYourWritesNanos && lastSweep.compareAndSet(swept, now)) {
+            // only clients that wrote within the window are kept, so the map follows the write rate
+            lastWrite.values().removeIf(wroteAt -> now - wroteAt >= readYourWritesNanos);
+        }
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        return "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+    }
+
+    private static String client(HttpServletRequest request) {
+        String employeeID = request.getParameter("employeeID");
+        return employeeID != null && !employeeID.isEmpty() ? "employee:" + employeeID : "address:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.K1;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Loading and reloading of an in-memory view of the Routine table ({@link RoutineSearchIndex},
+ * {@link RoutineReplica}, {@link RoutineAggregates}).
+ *
+ * The view is loaded by a background thread once the application is ready and follows
+ * {@link RoutineChangedEvent}s afterwards; events that arrive during a load are queued and
+ * replayed when it is done. A {@link RoutineReloadEvent} (a bulk change too large to send
+ * row by row) loads the view again from the table. A view that can answer from its previous
+ * data keeps serving it during the reload ({@link #servesDuringReload()}); the others report
+ * not ready, so their callers fall back to SQL until the reload is done.
+ *
+ * Subclasses keep their structures under {@link #lock}; every hook below is called with the
+ * write lock held.
+ */
+abstract class ReloadableRoutineView {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReloadableRoutineView.class);
+
+    private static final int LOAD_FETCH_SIZE = 2000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final String name;
+    private final ArrayDeque<RoutineChangedEvent> pendingEvents = new ArrayDeque<>();
+    private volatile boolean loading;
+    private volatile boolean ready;
+    private boolean reloadRequested; // guarded by the write lock
+
+    ReloadableRoutineView(String name) {
+        this.name = name;
+    }
+
+    abstract boolean enabled();
+
+    // Empties whatever the load fills
+    abstract void reset();
+
+    // One row read by the load
+    abstract void loadRow(Routine routine);
+
+    abstract void apply(RoutineChangedEvent event);
+
+    // Size of the loaded view, for the log
+    abstract String describe();
+
+    // After the last loaded row, before the queued events are replayed
+    void loaded() {
+    }
+
+    // Whether the previous data may answer reads while a reload runs
+    boolean servesDuringReload() {
+        return false;
+    }
+
+    String select() {
+        return RoutineQuery.SELECT_COLUMNS;
+    }
+
+    boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void loadInBackground() {
+        if (!enabled()) {
+            logger.info("{} disabled", name);
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            startLoad();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    void onRoutineChanged(RoutineChangedEvent event) {
+        if (!enabled()) return;
+        lock.writeLock().lock();
+        try {
+            if (ready) {
+                apply(event);
+            }
+            if (loading) {
+                // replayed on the data being loaded
+                pendingEvents.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    void onReload(RoutineReloadEvent event) {
+        if (!enabled()) return;
+        lock.writeLock().lock();
+        try {
+            if (loading) {
+                reloadRequested = true;
+            } else if (ready) {
+                if (!servesDuringReload()) ready = false;
+                startLoad();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Under the write lock
+    private void startLoad() {
+        reloadRequested = false;
+        pendingEvents.clear();
+        reset();
+        loading = true;
+        Thread loader = new Thread(this::load, name.toLowerCase().replace(' ', '-') + "-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private void load() {
+        long start = System.currentTimeMillis();
+        try {
+            jdbcTemplate.query(RoutineQuery.streaming(select(), new Object[0], LOAD_FETCH_SIZE), rs -> {
+                Routine routine = RoutineRowMapper.INSTANCE.mapRow(rs, 0);
+                lock.writeLock().lock();
+                try {
+                    loadRow(routine);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            });
+            String size;
+            lock.writeLock().lock();
+            try {
+                if (reloadRequested) {
+                    // a bulk change landed while loading; the rows read so far may miss it
+                    startLoad();
+                    return;
+                }
+                loaded();
+                while (!pendingEvents.isEmpty()) {
+                    apply(pendingEvents.poll());
+                }
+                loading = false;
+                ready = true;
+                size = describe();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("{} loaded: {} in {} ms", name, size, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            lock.writeLock().lock();
+            try {
+                loading = false;
+                pendingEvents.clear();
+                logger.error("{} load failed, {}: {}", name,
+                        ready ? "keeps serving the previous data" : "reads fall back until the next reload", e.getMessage());
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.K1;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * One Routine row as the dashboard sees it. Dates are yyyy-MM-dd and times HH:mm:ss,
+ * exactly as GET /api/routine selects them. The JSON names are the ones the frontend
+ * has always used (JobID, date, sn, ..., employeeID for StaffInCharge).
+ */
+@JsonPropertyOrder({"JobID", "date", "sn", "flight", "from", "to", "sta", "eta", "ata", "remarks", "employeeID", "supervisor"})
+public record Routine(
+        @JsonProperty("JobID") String jobId,
+        String date,
+        String sn,
+        String flight,
+        String from,
+        String to,
+        String sta,
+        String eta,
+        String ata,
+        String remarks,
+        @JsonProperty("employeeID") String staffInCharge,
+        String supervisor
+) {
+
+    // Builds the row from INSERT arguments in RoutineExcelImporter.INSERT_SQL order
+    static Routine fromInsertArgs(Object[] args) {
+        return new Routine(text(args[0]), text(args[1]), text(args[2]), text(args[3]), text(args[4]), text(args[5]),
+                text(args[6]), text(args[7]), text(args[8]), text(args[9]), text(args[10]), text(args[11]));
+    }
+
+    private static String text(Object value) {
+        return value == null ? null : value.toString();
+    }
+}
@@ -0,0 +1,290 @@
+package com.example.K1;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Materialized flight-operations aggregates for the dashboard: flights per day and station,
+ * per-staff workload and the distribution of ATA against STA and ETA.
+ *
+ * Loaded and kept current by {@link ReloadableRoutineView}. After a bulk change the totals are
+ * rebuilt into a second copy while the previous ones keep answering, and swapped in when the
+ * rebuild is done. For every row the keys it was counted under are remembered,
+ * so an update subtracts the old contribution and adds the new one, and a delete subtracts
+ * it; nothing is ever rescanned. Reads cost the size of the answer (stations, staff, days
+ * asked for), not the size of the history. The aggregates cover the whole history: rows
+ * moved to RoutineArchive keep their contribution, and the load reads both tables, so
+ * /api/aggregates/days still reaches MAX_DAYS back whatever routine.archive.age-days is.
+ */
+@Component
+class RoutineAggregates extends ReloadableRoutineView {
+
+    private static final int NO_DELAY = Integer.MIN_VALUE;
+    static final int MAX_DAYS = 366;
+
+    // Delay buckets in minutes: < -15, -15..-1, 0..14, 15..29, 30..59, 60..119, >= 120
+    private static final int[] BUCKET_BOUNDS = {-15, 0, 15, 30, 60, 120};
+    private static final String[] BUCKET_LABELS = {"<-15", "-15..-1", "0..14", "15..29", "30..59", "60..119", ">=120"};
+    static final int LATE_MINUTES = 15;
+
+    @Autowired
+    private RoutineArchiver routineArchiver;
+
+    @Value("${routine.aggregates.enabled:true}")
+    private boolean enabled;
+
+    // What reads see; a reload builds the next one and swaps it in when done
+    private Totals current = new Totals();
+    private Totals building;
+
+    RoutineAggregates() {
+        super("Routine aggregates");
+    }
+
+    @Override
+    boolean enabled() {
+        return enabled;
+    }
+
+    @Override
+    String select() {
+        return routineArchiver.archiveExists() ? RoutineQuery.SELECT_COLUMNS_WITH_ARCHIVE : RoutineQuery.SELECT_COLUMNS;
+    }
+
+    @Override
+    void reset() {
+        building = new Totals();
+    }
+
+    @Override
+    void loadRow(Routine routine) {
+        building.upsert(routine);
+    }
+
+    @Override
+    void loaded() {
+        current = building;
+        building = null;
+    }
+
+    // The totals are small, and a reload after a bulk import should not take /api/aggregates down
+    @Override
+    boolean servesDuringReload() {
+        return true;
+    }
+
+    @Override
+    void apply(RoutineChangedEvent event) {
+        current.apply(event);
+    }
+
+    @Override
+    String describe() {
+        return current.byJobId.size() + " row(s), " + current.days.size() + " day(s)";
+    }
+
+    // Totals, flights per station and both delay distributions
+    Map<String, Object> summary() {
+        lock.readLock().lock();
+        try {
+            Totals totals = current;
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("totalFlights", totals.byJobId.size());
+            summary.put("notLanded", totals.notLanded);
+            summary.put("stations", stationCounts(totals.stations));
+            Map<String, Object> delays = new LinkedHashMap<>();
+            delays.put("ataVsSta", totals.staDelay.toMap());
+            delays.put("ataVsEta", totals.etaDelay.toMap());
+            summary.put("delayMinutes", delays);
+            return summary;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Flights per day in [from, to] with departures/arrivals per station; days without flights are omitted
+    List<Map<String, Object>> days(LocalDate from, LocalDate to) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+                DayCounts counts = current.days.get(day.toString());
+                if (counts == null) continue;
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("date", day.toString());
+                entry.put("flights", counts.flights);
+                entry.put("stations", stationCounts(counts.stations));
+                result.add(entry);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    // Assigned, landed and late (ATA at least LATE_MINUTES after STA) rows per staff member
+    Map<String, Map<String, Integer>> staffWorkload() {
+        lock.readLock().lock();
+        try {
+            Map<String, Map<String, Integer>> result = new TreeMap<>();
+            current.staff.forEach((id, c) -> {
+                Map<String, Integer> entry = new LinkedHashMap<>();
+                entry.put("assigned", c[0]);
+                entry.put("landed", c[1]);
+                entry.put("late", c[2]);
+                result.put(id, entry);
+            });
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Map<String, Map<String, Integer>> stationCounts(Map<String, int[]> counts) {
+        Map<String, Map<String, Integer>> result = new TreeMap<>();
+        counts.forEach((station, c) -> {
+            Map<String, Integer> entry = new LinkedHashMap<>();
+            entry.put("departures", c[0]);
+            entry.put("arrivals", c[1]);
+            result.put(station, entry);
+        });
+        return result;
+    }
+
+    // Minutes from reference to ATA, taking the shorter way around midnight; NO_DELAY when either is missing
+    static int delayMinutes(String reference, String ata) {
+        int ref = RoutineValues.secondOfDay(reference);
+        int actual = RoutineValues.secondOfDay(ata);
+        if (ref == RoutineValues.INVALID || actual == RoutineValues.INVALID) return NO_DELAY;
+        int diff = actual - ref;
+        if (diff < -12 * 3600) diff += 24 * 3600;
+        else if (diff > 12 * 3600) diff -= 24 * 3600;
+        return Math.floorDiv(diff, 60);
+    }
+
+    // One complete set of aggregates; mutated only under the write lock
+    private static final class Totals {
+        final Map<String, Contribution> byJobId = new HashMap<>();
+        final Map<String, DayCounts> days = new HashMap<>();
+        final Map<String, int[]> stations = new HashMap<>(); // {departures, arrivals}
+        final Map<String, int[]> staff = new HashMap<>(); // {assigned, landed, late}
+        final DelayHistogram staDelay = new DelayHistogram();
+        final DelayHistogram etaDelay = new DelayHistogram();
+        long notLanded;
+
+        void apply(RoutineChangedEvent event) {
+            // moved, not gone: the row still counts
+            if (event.isArchived()) return;
+            if (event.isDelete()) {
+                Contribution old = byJobId.remove(event.jobId());
+                if (old != null) count(old, -1);
+                return;
+            }
+            upsert(event.routine());
+        }
+
+        void upsert(Routine routine) {
+            if (routine.jobId() == null) return;
+            Contribution next = Contribution.of(routine);
+            Contribution old = byJobId.put(routine.jobId(), next);
+            if (old != null) count(old, -1);
+            count(next, 1);
+        }
+
+        // Adds (delta = 1) or subtracts (delta = -1) one row's contribution; zero counts are dropped
+        private void count(Contribution c, int delta) {
+            if (c.date != null) {
+                DayCounts day = days.computeIfAbsent(c.date, d -> new DayCounts());
+                day.flights += delta;
+                add(day.stations, c.from, 0, delta);
+                add(day.stations, c.to, 1, delta);
+                if (day.flights == 0) days.remove(c.date);
+            }
+            add(stations, c.from, 0, delta);
+            add(stations, c.to, 1, delta);
+            if (c.staff != null) {
+                int[] s = staff.computeIfAbsent(c.staff, k -> new int[3]);
+                s[0] += delta;
+                if (c.landed) s[1] += delta;
+                if (c.staDelay != NO_DELAY && c.staDelay >= LATE_MINUTES) s[2] += delta;
+                if (s[0] == 0) staff.remove(c.staff);
+            }
+            if (!c.landed) notLanded += delta;
+            staDelay.add(c.staDelay, delta);
+            etaDelay.add(c.etaDelay, delta);
+        }
+
+        private static void add(Map<String, int[]> counts, String key, int slot, int delta) {
+            if (key == null || key.isEmpty()) return;
+            int[] c = counts.computeIfAbsent(key, k -> new int[2]);
+            c[slot] += delta;
+            if (c[0] == 0 && c[1] == 0) counts.remove(key);
+        }
+    }
+
+    // The keys a row was counted under, so it can be taken out again without re-reading it
+    private static final class Contribution {
+        final String date;
+        final String from;
+        final String to;
+        final String staff;
+        final boolean landed;
+        final int staDelay;
+        final int etaDelay;
+
+        private Contribution(Routine r) {
+            this.date = r.date();
+            this.from = r.from();
+            this.to = r.to();
+            this.staff = r.staffInCharge();
+            this.landed = RoutineValues.secondOfDay(r.ata()) != RoutineValues.INVALID;
+            this.staDelay = delayMinutes(r.sta(), r.ata());
+            this.etaDelay = delayMinutes(r.eta(), r.ata());
+        }
+
+        static Contribution of(Routine routine) {
+            return new Contribution(routine);
+        }
+    }
+
+    private static final class DayCounts {
+        int flights;
+        final Map<String, int[]> stations = new HashMap<>();
+    }
+
+    private static final class DelayHistogram {
+        final long[] buckets = new long[BUCKET_LABELS.length];
+        long count;
+        long sumMinutes;
+
+        void add(int minutes, int delta) {
+            if (minutes == NO_DELAY) return;
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS.length && minutes >= BUCKET_BOUNDS[bucket]) bucket++;
+            buckets[bucket] += delta;
+            count += delta;
+            sumMinutes += (long) minutes * delta;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("count", count);
+            map.put("meanMinutes", count == 0 ? 0 : Math.round(sumMinutes * 10.0 / count) / 10.0);
+            Map<String, Long> histogram = new LinkedHashMap<>();
+            for (int i = 0; i < BUCKET_LABELS.length; i++) {
+                histogram.put(BUCKET_LABELS[i], buckets[i]);
+            }
+            map.put("buckets", histogram);
+            return map;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.K1;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Moves Routine rows whose Ticket_Date is older than routine.archive.age-days into the
+ * RoutineArchive table (same columns, see db/routine-archive.sql), so the hot table and its
+ * indexes only hold recent history and list, search and export latency stay flat over the years.
+ *
+ * Runs on routine.archive.cron in batches of at most MAX_JOB_IDS rows; each batch is one
+ * INSERT ... SELECT plus DELETE in a transaction, so a row is always in exactly one table.
+ * Archived rows are read-only. Reads include the archive only when their date range starts
+ * on or before the newest archived day ({@link #reaches}); everything else stays on Routine.
+ * Rows without a Ticket_Date are never archived. Without the RoutineArchive table this is a no-op.
+ */
+@Component
+class RoutineArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoutineArchiver.class);
+
+    static final String ARCHIVE_TABLE = "RoutineArchive";
+
+    private static final String SELECT_DUE_SQL = "SELECT JobID FROM Routine WHERE Ticket_Date < ? " +
+            "ORDER BY Ticket_Date, JobID OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private SqlMetrics sqlMetrics;
+
+    @Value("${routine.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${routine.archive.age-days:90}")
+    private int ageDays;
+
+    @Value("${routine.archive.batch-size:1000}")
+    private int batchSize;
+
+    private volatile boolean tableExists;
+    private boolean detected; // guarded by this
+    private volatile LocalDate archivedThrough; // newest Ticket_Date in the archive, null = empty
+
+    @EventListener(ApplicationReadyEvent.class)
+    void detectArchive() {
+        archiveExists();
+    }
+
+    /**
+     * Whether the RoutineArchive table exists, looked up on first use (also by the loaders of
+     * in-memory views, which may run before the ready event reaches this bean). A failed
+     * lookup answers false and is retried on the next call.
+     */
+    synchronized boolean archiveExists() {
+        if (detected) return tableExists;
+        try {
+            tableExists = Boolean.TRUE.equals(jdbcTemplate.execute((Connection connection) -> hasTable(connection)));
+            if (tableExists) {
+                refreshArchivedThrough();
+                logger.info("Routine archive found, archived through {}", archivedThrough);
+            } else if (enabled) {
+                logger.warn("Table {} not found, Routine archiving is off (see db/routine-archive.sql)", ARCHIVE_TABLE);
+            }
+            detected = true;
+        } catch (Exception e) {
+            logger.error("Routine archive detection failed, reads use the hot table only: {}", e.getMessage());
+        }
+        return tableExists;
+    }
+
+    private static boolean hasTable(Connection connection) throws SQLException {
+        // identifier case differs per database (H2 upper-cases unquoted names)
+        for (String name : new String[]{ARCHIVE_TABLE, ARCHIVE_TABLE.toUpperCase()}) {
+            try (ResultSet tables = connection.getMetaData().getTables(null, null, name, new String[]{"TABLE"})) {
+                if (tables.next()) return true;
+            }
+        }
+        return false;
+    }
+
+    // Whether a read of this range has to include RoutineArchive; ranges without a start never do
+    boolean reaches(RoutineDateRange range) {
+        LocalDate through = archivedThrough;
+        return tableExists && through != null && range.startsOnOrBefore(through);
+    }
+
+    @Scheduled(cron = "${routine.archive.cron:0 30 2 * * *}")
+    void archiveScheduled() {
+        if (!enabled || !tableExists) return;
+        try {
+            archiveOlderThan(LocalDate.now().minusDays(ageDays));
+        } catch (Exception e) {
+            logger.error("Routine archiving failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Moves every row with Ticket_Date before the cutoff into the archive and returns how
+     * many were moved. Each moved row is published as {@link RoutineChangedEvent#archived}.
+     */
+    long archiveOlderThan(LocalDate cutoff) {
+        long start = System.currentTimeMillis();
+        int limit = Math.min(Math.max(batchSize, 1), RoutineQuery.MAX_JOB_IDS);
+        long moved = 0;
+        while (true) {
+            List<String> jobIds = jdbcTemplate.queryForList(SELECT_DUE_SQL, String.class, java.sql.Date.valueOf(cutoff), limit);
+            if (jobIds.isEmpty()) break;
+            String in = String.join(", ", Collections.nCopies(jobIds.size(), "?"));
+            Object[] params = jobIds.toArray();
+            sqlMetrics.time(SqlMetrics.ROUTINE_ARCHIVE, () -> transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update("INSERT INTO " + ARCHIVE_TABLE + " (" + RoutineQuery.COLUMNS + ") SELECT "
+                        + RoutineQuery.COLUMNS + " FROM Routine WHERE JobID IN (" + in + ")", params);
+                jdbcTemplate.update("DELETE FROM Routine WHERE JobID IN (" + in + ")", params);
+            }));
+            // visible in the archive from here on
+            refreshArchivedThrough();
+            for (String jobId : jobIds) {
+                eventPublisher.publishEvent(RoutineChangedEvent.archived(jobId));
+            }
+            moved += jobIds.size();
+            if (jobIds.size() < limit) break;
+        }
+        if (moved > 0) {
+            logger.info("Archived {} Routine row(s) dated before {} in {} ms", moved, cutoff, System.currentTimeMillis() - start);
+        }
+        return moved;
+    }
+
+    private void refreshArchivedThrough() {
+        java.sql.Date newest = jdbcTemplate.queryForObject("SELECT MAX(Ticket_Date) FROM " + ARCHIVE_TABLE, java.sql.Date.class);
+        archivedThrough = newest == null ? null : newest.toLocalDate();
+    }
+}
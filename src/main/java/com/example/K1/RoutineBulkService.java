@@ -0,0 +1,247 @@
+package com.example.K1;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Applies many Routine changes in one round trip: partial updates (only the fields an item
+ * carries are set) and deletes by JobID.
+ *
+ * Updates that change the same set of columns share one UPDATE statement and go out as one
+ * JDBC batch; all batches run in a single transaction, so a database error leaves the table
+ * untouched. Items that fail validation are reported and skipped without affecting the rest.
+ * After the commit the updated rows are read back to publish {@link RoutineChangedEvent}s.
+ */
+@Service
+class RoutineBulkService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoutineBulkService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private SqlMetrics sqlMetrics;
+
+    @Value("${routine.bulk.max-items:5000}")
+    private int maxItems;
+
+    int maxItems() {
+        return maxItems;
+    }
+
+    /**
+     * updates: objects with "jobId" (or "JobID") plus the fields to change, using the same
+     * keys as PUT /api/routine/{jobId}; deletes: JobIDs. Returns one result per item, updates
+     * first, each with jobId, action, success and message.
+     */
+    List<Map<String, Object>> apply(List<Map<String, Object>> updates, List<String> deletes) {
+        List<Map<String, Object>> results = new ArrayList<>();
+        // UPDATE statement (i.e. the set of changed columns) -> items sharing it, in first-seen order
+        Map<String, List<PendingUpdate>> groups = new LinkedHashMap<>();
+        for (Map<String, Object> item : updates) {
+            PendingUpdate update = toUpdate(item);
+            results.add(update.result);
+            if (update.args != null) {
+                groups.computeIfAbsent(update.sql, k -> new ArrayList<>()).add(update);
+            }
+        }
+        List<Map<String, Object>> deleteResults = new ArrayList<>();
+        List<Object[]> deleteArgs = new ArrayList<>();
+        for (String jobId : deletes) {
+            Map<String, Object> result = result(jobId, "delete");
+            if (jobId == null || jobId.isBlank()) {
+                fail(result, "Missing jobId.");
+            } else {
+                deleteArgs.add(new Object[]{jobId});
+                deleteResults.add(result);
+            }
+            results.add(result);
+        }
+
+        // who could see each row before the change, for the change feed
+        Map<String, String> previousStaff = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        transactionTemplate.executeWithoutResult(status -> {
+            List<String> jobIds = new ArrayList<>();
+            for (List<PendingUpdate> items : groups.values()) {
+                for (PendingUpdate item : items) jobIds.add((String) item.result.get("jobId"));
+            }
+            for (Object[] args : deleteArgs) jobIds.add((String) args[0]);
+            previousStaff.putAll(staffInChargeOf(jobIds));
+            for (Map.Entry<String, List<PendingUpdate>> group : groups.entrySet()) {
+                List<PendingUpdate> items = group.getValue();
+                List<Object[]> args = items.stream().map(u -> u.args).toList();
+                int[] counts = sqlMetrics.time(SqlMetrics.ROUTINE_UPDATE, () -> jdbcTemplate.batchUpdate(group.getKey(), args));
+                for (int i = 0; i < items.size(); i++) {
+                    record(items.get(i).result, counts[i], "Routine updated successfully.");
+                }
+            }
+            if (!deleteArgs.isEmpty()) {
+                int[] counts = sqlMetrics.time(SqlMetrics.ROUTINE_DELETE,
+                        () -> jdbcTemplate.batchUpdate("DELETE FROM Routine WHERE JobID = ?", deleteArgs));
+                for (int i = 0; i < deleteResults.size(); i++) {
+                    record(deleteResults.get(i), counts[i], "Routine deleted successfully.");
+                }
+            }
+        });
+
+        publishChanges(results, previousStaff);
+        return results;
+    }
+
+    private PendingUpdate toUpdate(Map<String, Object> item) {
+        Object id = item.containsKey("jobId") ? item.get("jobId") : item.get("JobID");
+        String jobId = id == null ? null : id.toString();
+        PendingUpdate update = new PendingUpdate(result(jobId, "update"));
+        if (jobId == null || jobId.isBlank()) {
+            fail(update.result, "Missing jobId.");
+            return update;
+        }
+        for (String key : item.keySet()) {
+            if (!key.equals("jobId") && !key.equals("JobID") && RoutineUpdateField.fromKey(key) == null) {
+                fail(update.result, "Unknown field: " + key);
+                return update;
+            }
+        }
+
+        StringBuilder sql = new StringBuilder("UPDATE Routine SET ");
+        List<Object> args = new ArrayList<>();
+        for (RoutineUpdateField field : RoutineUpdateField.values()) {
+            if (!item.containsKey(field.key())) continue;
+            Object raw = item.get(field.key());
+            Object value;
+            try {
+                value = columnValue(field, raw);
+            } catch (IllegalArgumentException e) {
+                fail(update.result, e.getMessage());
+                return update;
+            }
+            if (!args.isEmpty()) sql.append(", ");
+            sql.append(field.column()).append(" = ?");
+            args.add(value);
+        }
+        if (args.isEmpty()) {
+            fail(update.result, "No fields to update.");
+            return update;
+        }
+        sql.append(" WHERE JobID = ?");
+        args.add(jobId);
+        update.sql = sql.toString();
+        update.args = args.toArray();
+        return update;
+    }
+
+    // Dates and times are converted so a bad value fails this item instead of the whole batch
+    private static Object columnValue(RoutineUpdateField field, Object raw) {
+        String text = raw == null ? null : raw.toString();
+        switch (field) {
+            case DATE -> {
+                if (RoutineValues.isBlank(text)) return null;
+                java.sql.Date date = RoutineValues.parseDate(text);
+                if (date == null) throw new IllegalArgumentException("Invalid date: " + text);
+                return date;
+            }
+            case STA, ETA, ATA -> {
+                if (RoutineValues.isBlank(text)) return null;
+                java.sql.Time time = RoutineValues.parseTime(text);
+                if (time == null) throw new IllegalArgumentException("Invalid " + field.key() + ": " + text);
+                return time;
+            }
+            default -> {
+                return text;
+            }
+        }
+    }
+
+    // Re-reads the updated rows so listeners see them exactly as stored
+    private void publishChanges(List<Map<String, Object>> results, Map<String, String> previousStaff) {
+        List<String> updated = new ArrayList<>();
+        for (Map<String, Object> result : results) {
+            if (!Boolean.TRUE.equals(result.get("success"))) continue;
+            String jobId = (String) result.get("jobId");
+            if ("delete".equals(result.get("action"))) {
+                eventPublisher.publishEvent(RoutineChangedEvent.deleted(jobId, previousStaff.get(jobId)));
+            } else {
+                updated.add(jobId);
+            }
+        }
+        for (int from = 0; from < updated.size(); from += RoutineQuery.MAX_JOB_IDS) {
+            RoutineQuery query = new RoutineQuery()
+                    .jobIds(updated.subList(from, Math.min(updated.size(), from + RoutineQuery.MAX_JOB_IDS)));
+            List<Routine> rows = sqlMetrics.time(SqlMetrics.ROUTINE_SELECT,
+                    () -> jdbcTemplate.query(query.sql(), RoutineRowMapper.INSTANCE, query.params()));
+            for (Routine row : rows) {
+                eventPublisher.publishEvent(RoutineChangedEvent.updated(row, previousStaff.get(row.jobId())));
+            }
+        }
+        logger.debug("Bulk change published {} update event(s)", updated.size());
+    }
+
+    // JobID -> StaffInCharge of the rows that exist; the rows stay locked until the transaction
+    // ends, so the values are still current when the updates and deletes run
+    private Map<String, String> staffInChargeOf(List<String> jobIds) {
+        Map<String, String> staff = new HashMap<>();
+        for (int from = 0; from < jobIds.size(); from += RoutineQuery.MAX_JOB_IDS) {
+            List<String> chunk = jobIds.subList(from, Math.min(jobIds.size(), from + RoutineQuery.MAX_JOB_IDS));
+            String in = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            sqlMetrics.time(SqlMetrics.ROUTINE_SELECT, () -> jdbcTemplate.query(
+                    "SELECT JobID, StaffInCharge FROM Routine WITH (UPDLOCK, HOLDLOCK) WHERE JobID IN (" + in + ")",
+                    rs -> { staff.put(rs.getString(1), rs.getString(2)); }, chunk.toArray()));
+        }
+        return staff;
+    }
+
+    private static void record(Map<String, Object> result, int count, String message) {
+        // drivers may report SUCCESS_NO_INFO for batched statements
+        if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+            result.put("success", true);
+            result.put("message", message);
+        } else {
+            fail(result, "Routine not found.");
+        }
+    }
+
+    private static Map<String, Object> result(String jobId, String action) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("jobId", jobId);
+        result.put("action", action);
+        result.put("success", false);
+        return result;
+    }
+
+    private static void fail(Map<String, Object> result, String message) {
+        result.put("success", false);
+        result.put("message", message);
+    }
+
+    private static final class PendingUpdate {
+        final Map<String, Object> result;
+        String sql;
+        Object[] args;
+
+        PendingUpdate(Map<String, Object> result) {
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.K1;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-Sent Events feed of Routine changes, so dashboards can load the list once and
+ * apply deltas instead of polling GET /api/routine.
+ *
+ * Every {@link RoutineChangedEvent} becomes one of two SSE events:
+ *   upsert  {"routine": {...}}  - the row as stored; sent to Admins and to the staff member in charge
+ *   remove  {"jobId": "..."}    - the row was deleted, or is no longer theirs to see
+ * so a staff member whose row is reassigned to someone else drops it from their list. A
+ * staff member who never had the row gets nothing.
+ *
+ * Each subscriber has its own bounded queue drained by its own virtual thread, so a slow
+ * client only blocks itself. When its queue overflows the backlog is discarded and a single
+ * resync event tells the client to reload the list before applying deltas again. A bulk
+ * change ({@link RoutineReloadEvent}) sends the same resync to everyone.
+ *
+ * A subscriber's permission is looked up again every routine.change-feed.permission-recheck.
+ * If it changed, or the employee is gone, the stream ends and the client has to subscribe
+ * again with its new scope.
+ */
+@Component
+class RoutineChangeFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoutineChangeFeed.class);
+
+    @Autowired
+    private PermissionService permissionService;
+
+    @Value("${routine.change-feed.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${routine.change-feed.max-subscribers:500}")
+    private int maxSubscribers;
+
+    @Value("${routine.change-feed.timeout:30m}")
+    private Duration timeout;
+
+    @Value("${routine.change-feed.heartbeat:25s}")
+    private Duration heartbeat;
+
+    @Value("${routine.change-feed.permission-recheck:60s}")
+    private Duration permissionRecheck;
+
+    private final Map<Long, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final AtomicLong nextSubscriberId = new AtomicLong();
+    private final AtomicLong nextEventId = new AtomicLong();
+
+    // null when the subscriber limit is reached
+    SseEmitter subscribe(String employeeID, boolean admin) {
+        if (subscribers.size() >= maxSubscribers) return null;
+        long id = nextSubscriberId.incrementAndGet();
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(id, employeeID, admin, emitter, new ArrayBlockingQueue<>(queueCapacity));
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        subscribers.put(id, subscriber);
+        subscriber.thread = Thread.ofVirtual().name("routine-feed-" + id).start(() -> drain(subscriber));
+        logger.info("Routine change feed: [{}] subscribed ({} subscriber(s))", employeeID, subscribers.size());
+        return emitter;
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @EventListener
+    void onRoutineChanged(RoutineChangedEvent event) {
+        // archived rows are still readable with a date range that reaches the archive
+        if (subscribers.isEmpty() || event.isArchived()) return;
+        long eventId = nextEventId.incrementAndGet();
+        FeedEvent upsert = event.isDelete() ? null : new FeedEvent(eventId, "upsert", Map.of("routine", event.routine()));
+        FeedEvent remove = new FeedEvent(eventId, "remove", Map.of("jobId", event.jobId()));
+        String staff = upsert == null ? null : RoutineValues.staffKey(event.routine().staffInCharge());
+        String previousStaff = RoutineValues.staffKey(event.previousStaffInCharge());
+        for (Subscriber subscriber : subscribers.values()) {
+            if (subscriber.admin) {
+                subscriber.offer(upsert != null ? upsert : remove);
+            } else if (staff != null && staff.equals(subscriber.staffKey)) {
+                subscriber.offer(upsert);
+            } else if (previousStaff != null && previousStaff.equals(subscriber.staffKey)) {
+                subscriber.offer(remove);
+            }
+        }
+    }
+
+    // Too many changes to send one by one: every subscriber reloads its list instead
+    @EventListener
+    void onReload(RoutineReloadEvent event) {
+        long eventId = nextEventId.incrementAndGet();
+        FeedEvent resync = new FeedEvent(eventId, "resync", Map.of("lastEventId", eventId));
+        for (Subscriber subscriber : subscribers.values()) {
+            subscriber.queue.clear();
+            subscriber.offer(resync);
+        }
+    }
+
+    @PreDestroy
+    void closeAll() {
+        for (Subscriber subscriber : subscribers.values()) {
+            subscriber.emitter.complete();
+            unsubscribe(subscriber);
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (subscribers.remove(subscriber.id) == null) return;
+        subscriber.closed = true;
+        if (subscriber.thread != null) subscriber.thread.interrupt();
+        logger.info("Routine change feed: [{}] unsubscribed ({} subscriber(s))", subscriber.employeeID, subscribers.size());
+    }
+
+    // Sends queued events in order; a heartbeat comment keeps idle connections open through proxies
+    private void drain(Subscriber subscriber) {
+        try {
+            subscriber.emitter.send(SseEmitter.event().name("ready").data(Map.of("lastEventId", nextEventId.get()), MediaType.APPLICATION_JSON));
+            long nextRecheck = System.nanoTime() + permissionRecheck.toNanos();
+            while (!subscriber.closed) {
+                if (System.nanoTime() - nextRecheck >= 0) {
+                    if (!permissionUnchanged(subscriber)) {
+                        subscriber.emitter.complete();
+                        unsubscribe(subscriber);
+                        return;
+                    }
+                    nextRecheck = System.nanoTime() + permissionRecheck.toNanos();
+                }
+                if (subscriber.overflowed) {
+                    subscriber.queue.clear();
+                    subscriber.overflowed = false;
+                    subscriber.emitter.send(SseEmitter.event().name("resync").data(Map.of("lastEventId", nextEventId.get()), MediaType.APPLICATION_JSON));
+                    continue;
+                }
+                long wait = Math.min(heartbeat.toNanos(), Math.max(0, nextRecheck - System.nanoTime()));
+                FeedEvent event = subscriber.queue.poll(wait, TimeUnit.NANOSECONDS);
+                if (event == null) {
+                    subscriber.emitter.send(SseEmitter.event().comment("keepalive"));
+                } else {
+                    subscriber.emitter.send(SseEmitter.event().id(Long.toString(event.id)).name(event.name).data(event.data, MediaType.APPLICATION_JSON));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | IllegalStateException e) {
+            // client went away or the emitter already completed
+            logger.debug("Routine change feed for [{}] closed: {}", subscriber.employeeID, e.getMessage());
+            unsubscribe(subscriber);
+        }
+    }
+
+    // False when the employee's Admin flag changed or can no longer be read; the stream must end
+    private boolean permissionUnchanged(Subscriber subscriber) {
+        try {
+            if (permissionService.isAdmin(subscriber.employeeID) == subscriber.admin) return true;
+            logger.info("Routine change feed: permission of [{}] changed, closing stream", subscriber.employeeID);
+        } catch (RuntimeException e) {
+            logger.warn("Routine change feed: permission check for [{}] failed, closing stream: {}", subscriber.employeeID, e.getMessage());
+        }
+        return false;
+    }
+
+    private record FeedEvent(long id, String name, Object data) {
+    }
+
+    private static final class Subscriber {
+        final long id;
+        final String employeeID;
+        final String staffKey;
+        final boolean admin;
+        final SseEmitter emitter;
+        final BlockingQueue<FeedEvent> queue;
+        volatile boolean overflowed;
+        volatile boolean closed;
+        volatile Thread thread;
+
+        Subscriber(long id, String employeeID, boolean admin, SseEmitter emitter, BlockingQueue<FeedEvent> queue) {
+            this.id = id;
+            this.employeeID = employeeID;
+            this.staffKey = RoutineValues.staffKey(employeeID);
+            this.admin = admin;
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+
+        void offer(FeedEvent event) {
+            if (!queue.offer(event)) {
+                overflowed = true;
+            }
+        }
+    }
+}
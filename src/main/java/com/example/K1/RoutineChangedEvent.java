@@ -0,0 +1,60 @@
+package com.example.K1;
+
+/**
+ * Published after a Routine row was inserted, updated or deleted through the API, so
+ * in-memory views of the table can follow along without re-reading it. A row moved to
+ * RoutineArchive is a delete for views of the hot table; isArchived() tells the two apart.
+ * Updates and deletes carry the StaffInCharge the row had before, so listeners can tell
+ * who could see it until now.
+ */
+final class RoutineChangedEvent {
+
+    private final String jobId;
+    private final Routine routine; // null when deleted
+    private final String previousStaffInCharge; // null for a new row
+    private final boolean archived;
+
+    private RoutineChangedEvent(String jobId, Routine routine, String previousStaffInCharge, boolean archived) {
+        this.jobId = jobId;
+        this.routine = routine;
+        this.previousStaffInCharge = previousStaffInCharge;
+        this.archived = archived;
+    }
+
+    // A new row
+    static RoutineChangedEvent saved(Routine routine) {
+        return new RoutineChangedEvent(routine.jobId(), routine, null, false);
+    }
+
+    static RoutineChangedEvent updated(Routine routine, String previousStaffInCharge) {
+        return new RoutineChangedEvent(routine.jobId(), routine, previousStaffInCharge, false);
+    }
+
+    static RoutineChangedEvent deleted(String jobId, String previousStaffInCharge) {
+        return new RoutineChangedEvent(jobId, null, previousStaffInCharge, false);
+    }
+
+    static RoutineChangedEvent archived(String jobId) {
+        return new RoutineChangedEvent(jobId, null, null, true);
+    }
+
+    String jobId() {
+        return jobId;
+    }
+
+    Routine routine() {
+        return routine;
+    }
+
+    String previousStaffInCharge() {
+        return previousStaffInCharge;
+    }
+
+    boolean isDelete() {
+        return routine == null;
+    }
+
+    boolean isArchived() {
+        return archived;
+    }
+}
@@ -0,0 +1,401 @@
+package com.example.K1;
+
+import com.microsoft.sqlserver.jdbc.ISQLServerBulkData;
+import com.microsoft.sqlserver.jdbc.SQLServerBulkCopy;
+import com.microsoft.sqlserver.jdbc.SQLServerBulkCopyOptions;
+import com.microsoft.sqlserver.jdbc.SQLServerConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Imports a Routine CSV (same columns as the Excel export, header row first, JobID column
+ * ignored) for feeds too large for row-by-row INSERTs.
+ *
+ * On SQL Server the file is parsed as it is read and handed to the driver's bulk copy API
+ * into a session temp table; one MERGE then inserts the rows whose (Ticket_Date, SN, Flight)
+ * is not in Routine yet, and not repeated earlier in the file. Rows that were left out are
+ * reported as duplicates. Nothing reaches Routine before the MERGE, so a cancelled or failed
+ * import leaves the table untouched.
+ *
+ * Other databases (the embedded H2 of the tests), or routine.import.csv.bulk-copy=false,
+ * use batched INSERT ... WHERE NOT EXISTS in chunks of routine.import.chunk-size instead,
+ * with the same duplicate rule but chunk-by-chunk commits like the Excel import.
+ */
+@Component
+class RoutineCsvImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoutineCsvImporter.class);
+
+    private static final String STAGING = "#RoutineStaging";
+    private static final String INSERTED = "#RoutineInserted";
+
+    // Both temp tables copy their columns from Routine, so types and lengths always match it
+    private static final String CREATE_STAGING = "SELECT TOP 0 ISNULL(CAST(0 AS INT), 0) AS StageRow, " +
+            RoutineQuery.COLUMNS + " INTO " + STAGING + " FROM Routine";
+    private static final String CREATE_INSERTED = "SELECT TOP 0 JobID INTO " + INSERTED + " FROM Routine; " +
+            "ALTER TABLE " + INSERTED + " ADD PRIMARY KEY (JobID)";
+
+    // Rows without a complete key are never treated as duplicates of each other
+    private static final String MERGE_SQL = "MERGE Routine WITH (HOLDLOCK) AS t " +
+            "USING (SELECT * FROM (SELECT *, ROW_NUMBER() OVER (PARTITION BY Ticket_Date, SN, Flight, " +
+            "CASE WHEN Ticket_Date IS NULL OR SN IS NULL OR Flight IS NULL THEN StageRow END ORDER BY StageRow) AS KeyRank " +
+            "FROM " + STAGING + ") ranked WHERE KeyRank = 1) AS s " +
+            "ON t.Ticket_Date = s.Ticket_Date AND t.SN = s.SN AND t.Flight = s.Flight " +
+            "WHEN NOT MATCHED BY TARGET THEN " +
+            "INSERT (JobID, Ticket_Date, SN, Flight, [From], [To], STA, ETA, ATA, Remarks, StaffInCharge, Supervisor) " +
+            "VALUES (s.JobID, s.Ticket_Date, s.SN, s.Flight, s.[From], s.[To], s.STA, s.ETA, s.ATA, s.Remarks, s.StaffInCharge, s.Supervisor) " +
+            "OUTPUT inserted.JobID INTO " + INSERTED + " (JobID);";
+
+    static final String INSERT_IF_NEW_SQL = "INSERT INTO Routine (JobID, Ticket_Date, SN, Flight, [From], [To], STA, ETA, ATA, Remarks, StaffInCharge, Supervisor) " +
+            "SELECT ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ? " +
+            "WHERE NOT EXISTS (SELECT 1 FROM Routine WHERE Ticket_Date = ? AND SN = ? AND Flight = ?)";
+
+    private static final String DUPLICATE_MESSAGE = "Duplicate: a routine with this date, SN and flight already exists.";
+
+    private static final int COLUMNS = 12;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private SqlMetrics sqlMetrics;
+
+    @Value("${routine.import.chunk-size:1000}")
+    private int chunkSize;
+
+    // auto = bulk copy when the database is SQL Server
+    @Value("${routine.import.csv.bulk-copy:auto}")
+    private String bulkCopy;
+
+    @Value("${routine.import.csv.bulk-copy-batch-size:50000}")
+    private int bulkCopyBatchSize;
+
+    // Throws CancellationException when progress asked to stop
+    ImportReport importCsv(Path csv, RoutineExcelImporter.Progress progress) throws IOException {
+        ImportReport report = new ImportReport();
+        progress.started(Files.size(csv));
+        try (RoutineExcelImporter.CountingInputStream counted = new RoutineExcelImporter.CountingInputStream(Files.newInputStream(csv))) {
+            CsvReader reader = new CsvReader(new BufferedReader(new InputStreamReader(counted, StandardCharsets.UTF_8), 1 << 16));
+            if (reader.next() == null) return report; // header
+            if (useBulkCopy()) {
+                bulkImport(new CsvRows(reader, counted, report, progress), report, progress);
+            } else {
+                batchImport(new CsvRows(reader, counted, report, progress), report, progress);
+            }
+        }
+        return report;
+    }
+
+    private boolean useBulkCopy() {
+        if (!"auto".equalsIgnoreCase(bulkCopy)) return Boolean.parseBoolean(bulkCopy);
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) con -> con.isWrapperFor(SQLServerConnection.class)));
+    }
+
+    // --- SQL Server: bulk copy into a temp table, then one set-based MERGE ---
+
+    private void bulkImport(CsvRows rows, ImportReport report, RoutineExcelImporter.Progress progress) {
+        // temp tables belong to the session, so everything runs on this one connection
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            try (Statement statement = con.createStatement()) {
+                statement.execute(CREATE_STAGING);
+                statement.execute(CREATE_INSERTED);
+            }
+            try {
+                long start = System.currentTimeMillis();
+                SQLServerBulkCopyOptions options = new SQLServerBulkCopyOptions();
+                options.setBatchSize(bulkCopyBatchSize);
+                options.setBulkCopyTimeout(0);
+                options.setTableLock(true);
+                CsvBulkData data = bulkData(con, rows);
+                sqlMetrics.time(SqlMetrics.ROUTINE_BULK_COPY, () -> {
+                    try (SQLServerBulkCopy copy = new SQLServerBulkCopy(con.unwrap(SQLServerConnection.class))) {
+                        copy.setBulkCopyOptions(options);
+                        copy.setDestinationTableName(STAGING);
+                        copy.writeToServer(data);
+                    } catch (SQLException e) {
+                        throw new IllegalStateException("Bulk copy failed: " + e.getMessage(), e);
+                    }
+                });
+                rows.rethrow();
+                if (progress.isCancelled()) {
+                    throw new CancellationException("Import cancelled after staging " + rows.count() + " row(s)");
+                }
+                logger.info("CSV import staged {} row(s) in {} ms", rows.count(), System.currentTimeMillis() - start);
+
+                int inserted = sqlMetrics.time(SqlMetrics.ROUTINE_INSERT, () -> {
+                    try (Statement statement = con.createStatement()) {
+                        return statement.executeUpdate(MERGE_SQL);
+                    } catch (SQLException e) {
+                        throw new IllegalStateException("MERGE into Routine failed: " + e.getMessage(), e);
+                    }
+                });
+                report.succeeded(inserted);
+                reportDuplicates(con, report);
+                if (inserted > 0) {
+                    eventPublisher.publishEvent(new RoutineReloadEvent("CSV import of " + inserted + " row(s)"));
+                }
+                progress.chunkWritten(rows.bytesRead(), report);
+            } finally {
+                try (Statement statement = con.createStatement()) {
+                    statement.execute("DROP TABLE IF EXISTS " + STAGING);
+                    statement.execute("DROP TABLE IF EXISTS " + INSERTED);
+                }
+            }
+            return null;
+        });
+    }
+
+    // The bulk copy describes its columns as the staging table declares them
+    private static CsvBulkData bulkData(Connection con, CsvRows rows) throws SQLException {
+        try (Statement statement = con.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT * FROM " + STAGING + " WHERE 1 = 0")) {
+            return new CsvBulkData(rows, rs.getMetaData());
+        }
+    }
+
+    private void reportDuplicates(Connection con, ImportReport report) throws SQLException {
+        try (Statement statement = con.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT StageRow FROM " + STAGING + " s WHERE NOT EXISTS " +
+                     "(SELECT 1 FROM " + INSERTED + " i WHERE i.JobID = s.JobID) ORDER BY StageRow")) {
+            while (rs.next()) {
+                report.duplicate(rs.getInt(1), DUPLICATE_MESSAGE);
+            }
+        }
+    }
+
+    // --- Fallback: batched conditional INSERTs, one transaction per chunk ---
+
+    private void batchImport(CsvRows rows, ImportReport report, RoutineExcelImporter.Progress progress) throws IOException {
+        List<Object[]> chunk = new ArrayList<>();
+        List<Integer> rowNumbers = new ArrayList<>();
+        Object[] args;
+        while ((args = rows.nextArgs()) != null) {
+            if (chunk.isEmpty() && progress.isCancelled()) {
+                throw new CancellationException("Import cancelled at row " + rows.rowNumber());
+            }
+            chunk.add(args);
+            rowNumbers.add(rows.rowNumber());
+            if (chunk.size() >= chunkSize) {
+                writeChunk(chunk, rowNumbers, report);
+                progress.chunkWritten(rows.bytesRead(), report);
+            }
+        }
+        rows.rethrowIo();
+        writeChunk(chunk, rowNumbers, report);
+        progress.chunkWritten(rows.bytesRead(), report);
+    }
+
+    private void writeChunk(List<Object[]> chunk, List<Integer> rowNumbers, ImportReport report) {
+        if (chunk.isEmpty()) return;
+        List<Object[]> batch = chunk.stream().map(RoutineCsvImporter::insertIfNewArgs).toList();
+        try {
+            int[] counts = sqlMetrics.time(SqlMetrics.ROUTINE_INSERT,
+                    () -> transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(INSERT_IF_NEW_SQL, batch)));
+            for (int i = 0; i < chunk.size(); i++) {
+                inserted(chunk.get(i), rowNumbers.get(i), counts[i], report);
+            }
+        } catch (DataAccessException ex) {
+            logger.warn("CSV import chunk of {} row(s) starting at row {} failed, retrying row by row: {}",
+                    chunk.size(), rowNumbers.get(0), ex.getMostSpecificCause().getMessage());
+            for (int i = 0; i < chunk.size(); i++) {
+                Object[] row = batch.get(i);
+                try {
+                    int count = sqlMetrics.time(SqlMetrics.ROUTINE_INSERT, () -> jdbcTemplate.update(INSERT_IF_NEW_SQL, row));
+                    inserted(chunk.get(i), rowNumbers.get(i), count, report);
+                } catch (DataAccessException rowEx) {
+                    report.failed(rowNumbers.get(i), rowEx.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+        chunk.clear();
+        rowNumbers.clear();
+    }
+
+    private void inserted(Object[] insertArgs, int row, int count, ImportReport report) {
+        // drivers may report SUCCESS_NO_INFO for batched statements
+        if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+            report.succeeded(1);
+            eventPublisher.publishEvent(RoutineChangedEvent.saved(Routine.fromInsertArgs(insertArgs)));
+        } else {
+            report.duplicate(row, DUPLICATE_MESSAGE);
+        }
+    }
+
+    // INSERT arguments followed by the key for the NOT EXISTS check
+    private static Object[] insertIfNewArgs(Object[] insertArgs) {
+        Object[] args = Arrays.copyOf(insertArgs, COLUMNS + 3);
+        args[COLUMNS] = insertArgs[1];     // Ticket_Date
+        args[COLUMNS + 1] = insertArgs[2]; // SN
+        args[COLUMNS + 2] = insertArgs[3]; // Flight
+        return args;
+    }
+
+    private static boolean isBlank(String[] record) {
+        for (String field : record) {
+            if (!RoutineValues.isBlank(field)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * The data records of the CSV converted to INSERT arguments, one at a time. Reports
+     * progress (and checks for cancellation) every chunk-size rows while the bulk copy pulls
+     * from it; errors are kept for after the copy since the driver would wrap them.
+     */
+    private final class CsvRows {
+        private final CsvReader reader;
+        private final RoutineExcelImporter.CountingInputStream counted;
+        private final ImportReport report;
+        private final RoutineExcelImporter.Progress progress;
+        private int count;
+        private int rowNumber;
+        private IOException error;
+
+        CsvRows(CsvReader reader, RoutineExcelImporter.CountingInputStream counted, ImportReport report,
+                RoutineExcelImporter.Progress progress) {
+            this.reader = reader;
+            this.counted = counted;
+            this.report = report;
+            this.progress = progress;
+        }
+
+        // null at the end of the file, on a read error or when cancelled during bulk copy
+        Object[] nextArgs() {
+            String[] record;
+            try {
+                // a blank line would become a row without a key, which never counts as a duplicate
+                do {
+                    record = reader.next();
+                } while (record != null && isBlank(record));
+            } catch (IOException e) {
+                error = e;
+                return null;
+            }
+            if (record == null) return null;
+            rowNumber = (int) reader.recordNumber();
+            count++;
+            return RoutineExcelImporter.toInsertArgs(rowNumber, Arrays.copyOf(record, COLUMNS), report);
+        }
+
+        // For the bulk copy, which cannot be interrupted from outside
+        Object[] nextArgsOrStop() {
+            if (count > 0 && count % chunkSize == 0) {
+                progress.chunkWritten(counted.count(), report);
+                if (progress.isCancelled()) return null;
+            }
+            return nextArgs();
+        }
+
+        int count() {
+            return count;
+        }
+
+        int rowNumber() {
+            return rowNumber;
+        }
+
+        long bytesRead() {
+            return counted.count();
+        }
+
+        void rethrowIo() throws IOException {
+            if (error != null) throw error;
+        }
+
+        void rethrow() {
+            if (error != null) throw new IllegalStateException("Unreadable CSV: " + error.getMessage(), error);
+        }
+    }
+
+    // Feeds CsvRows to SQLServerBulkCopy in the column order of the staging table
+    private static final class CsvBulkData implements ISQLServerBulkData {
+        private static final Set<Integer> ORDINALS = Set.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13);
+
+        private final CsvRows rows;
+        private final String[] names = new String[COLUMNS + 1];
+        private final int[] types = new int[COLUMNS + 1];
+        private final int[] precision = new int[COLUMNS + 1];
+        private final int[] scale = new int[COLUMNS + 1];
+        private final Object[] current = new Object[COLUMNS + 1];
+
+        CsvBulkData(CsvRows rows, ResultSetMetaData staging) throws SQLException {
+            this.rows = rows;
+            for (int column = 1; column <= names.length; column++) {
+                names[column - 1] = staging.getColumnName(column);
+                types[column - 1] = staging.getColumnType(column);
+                precision[column - 1] = staging.getPrecision(column);
+                scale[column - 1] = staging.getScale(column);
+            }
+        }
+
+        @Override
+        public Set<Integer> getColumnOrdinals() {
+            return ORDINALS;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return names[column - 1];
+        }
+
+        @Override
+        public int getColumnType(int column) {
+            return types[column - 1];
+        }
+
+        @Override
+        public int getPrecision(int column) {
+            return precision[column - 1];
+        }
+
+        @Override
+        public int getScale(int column) {
+            return scale[column - 1];
+        }
+
+        @Override
+        public Object[] getRowData() {
+            return current;
+        }
+
+        @Override
+        public boolean next() {
+            Object[] args = rows.nextArgsOrStop();
+            if (args == null) return false;
+            current[0] = rows.rowNumber();
+            System.arraycopy(args, 0, current, 1, COLUMNS);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.K1;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for paging through GET /api/routine.
+ * Holds the sort field, the sort value of the last row returned and its JobID,
+ * encoded as URL-safe Base64 so the frontend can pass it back untouched.
+ */
+final class RoutineCursor {
+
+    private static final char SEP = '\n';
+    private static final char NULL_MARK = '-';
+    private static final char VALUE_MARK = '+';
+
+    private final RoutineSortField sortField;
+    private final String sortValue; // null when the last row had no value in the sort column
+    private final String jobId;
+
+    RoutineCursor(RoutineSortField sortField, String sortValue, String jobId) {
+        this.sortField = sortField;
+        this.sortValue = sortValue;
+        this.jobId = jobId;
+    }
+
+    RoutineSortField sortField() {
+        return sortField;
+    }
+
+    String sortValue() {
+        return sortValue;
+    }
+
+    String jobId() {
+        return jobId;
+    }
+
+    String encode() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(sortField.name()).append(SEP);
+        if (sortValue == null) {
+            sb.append(NULL_MARK);
+        } else {
+            sb.append(VALUE_MARK).append(sortValue);
+        }
+        sb.append(SEP).append(jobId);
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Returns null for anything that was not produced by encode()
+    static RoutineCursor decode(String token) {
+        if (token == null || token.isEmpty()) return null;
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        // The sort value may itself contain newlines (Remarks), so split on the first and last one
+        int first = raw.indexOf(SEP);
+        int last = raw.lastIndexOf(SEP);
+        if (first < 0 || last <= first || last == raw.length() - 1) return null;
+
+        RoutineSortField field;
+        try {
+            field = RoutineSortField.valueOf(raw.substring(0, first));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        String value = raw.substring(first + 1, last);
+        if (value.isEmpty()) return null;
+        String sortValue;
+        if (value.charAt(0) == NULL_MARK && value.length() == 1) {
+            sortValue = null;
+        } else if (value.charAt(0) == VALUE_MARK) {
+            sortValue = value.substring(1);
+        } else {
+            return null;
+        }
+        return new RoutineCursor(field, sortValue, raw.substring(last + 1));
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.K1;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic version of the Routine table as this instance has seen it: bumped by every
+ * {@link RoutineChangedEvent} or {@link RoutineReloadEvent}, which all write paths publish
+ * after their change is stored.
+ *
+ * ETags for Routine reads are built from it, so a client that already has the current
+ * representation gets a 304 without a query. The boot id changes on every start, so tags
+ * handed out before a restart (or by another instance) never match. Changes made to the
+ * table outside the application are not seen and only show up after the next write or restart.
+ */
+@Component
+class RoutineDataVersion {
+
+    private final String bootId = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong version = new AtomicLong();
+
+    @EventListener
+    void onRoutineChanged(RoutineChangedEvent event) {
+        version.incrementAndGet();
+    }
+
+    @EventListener
+    void onReload(RoutineReloadEvent event) {
+        version.incrementAndGet();
+    }
+
+    long current() {
+        return version.get();
+    }
+
+    /**
+     * Weak ETag for a read of the current version with the given request parameters
+     * (employee scope, search, sort, ...). Read it before querying: a write that lands
+     * during the query then makes the tag stale rather than the data. Weak because the
+     * same representation may go out gzip-compressed or not.
+     */
+    String etag(Object... parameters) {
+        StringBuilder key = new StringBuilder();
+        for (Object parameter : parameters) {
+            key.append(parameter).append('\u0001');
+        }
+        return "W/\"" + bootId + "-" + version.get() + "-" + Integer.toHexString(key.toString().hashCode()) + "\"";
+    }
+}
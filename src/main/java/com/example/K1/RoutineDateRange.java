@@ -0,0 +1,58 @@
+package com.example.K1;
+
+import java.time.LocalDate;
+
+/**
+ * Inclusive Ticket_Date bounds of a Routine read; a null bound is open on that side.
+ * Rows without a date are in every range, so rows imported with an unreadable date stay visible.
+ */
+record RoutineDateRange(LocalDate from, LocalDate to) {
+
+    static final RoutineDateRange ALL = new RoutineDateRange(null, null);
+
+    /**
+     * dateFrom/dateTo as sent by the dashboard (yyyy-MM-dd). Without dateFrom the range starts
+     * defaultDays before dateTo, or before today when dateTo is missing or later; a missing
+     * dateTo stays open so upcoming schedules show. Every range read from a request therefore
+     * has a start, and only an explicit dateFrom reaches back into the archive.
+     * Null when a date is unreadable or dateFrom is after dateTo.
+     */
+    static RoutineDateRange fromRequest(String dateFrom, String dateTo, int defaultDays, LocalDate today) {
+        return parse(dateFrom, dateTo, defaultDays, today);
+    }
+
+    private static RoutineDateRange parse(String dateFrom, String dateTo, int defaultDays, LocalDate today) {
+        LocalDate to = null;
+        if (!RoutineValues.isBlank(dateTo)) {
+            java.sql.Date parsed = RoutineValues.parseDate(dateTo);
+            if (parsed == null) return null;
+            to = parsed.toLocalDate();
+        }
+        LocalDate from;
+        if (!RoutineValues.isBlank(dateFrom)) {
+            java.sql.Date parsed = RoutineValues.parseDate(dateFrom);
+            if (parsed == null) return null;
+            from = parsed.toLocalDate();
+        } else {
+            from = (to != null && to.isBefore(today) ? to : today).minusDays(defaultDays);
+        }
+        if (to != null && from.isAfter(to)) return null;
+        return new RoutineDateRange(from, to);
+    }
+
+    boolean isAll() {
+        return from == null && to == null;
+    }
+
+    // date as yyyy-MM-dd, the format of Routine.date()
+    boolean contains(String date) {
+        if (date == null || isAll()) return true;
+        return (from == null || date.compareTo(from.toString()) >= 0)
+                && (to == null || date.compareTo(to.toString()) <= 0);
+    }
+
+    // Whether the range has a start on or before date; an open start never reaches back
+    boolean startsOnOrBefore(LocalDate date) {
+        return from != null && !from.isAfter(date);
+    }
+}
@@ -0,0 +1,316 @@
+package com.example.K1;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Imports the first sheet of an uploaded .xlsx into Routine.
+ *
+ * The sheet is read with the SAX event API, so only the row being parsed is in memory.
+ * Converted rows are collected into chunks of routine.import.chunk-size and each chunk
+ * is written with one JDBC batch inside its own transaction. When a chunk fails it is
+ * rolled back and replayed row by row, so the report can name the rows that failed.
+ *
+ * A {@link Progress} sees the sheet's size and how far the parser has read after every
+ * chunk; when it asks to cancel, the import stops before the next chunk and the chunks
+ * already committed stay in the table.
+ */
+@Component
+class RoutineExcelImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoutineExcelImporter.class);
+
+    static final String INSERT_SQL = "INSERT INTO Routine (JobID, Ticket_Date, SN, Flight, [From], [To], STA, ETA, ATA, Remarks, StaffInCharge, Supervisor) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int COLUMNS = 12;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private SqlMetrics sqlMetrics;
+
+    @Value("${routine.import.chunk-size:1000}")
+    private int chunkSize;
+
+    // Progress callbacks run on the importing thread
+    interface Progress {
+        Progress NONE = new Progress() {
+        };
+
+        // uncompressed size of the sheet XML, or -1 when unknown
+        default void started(long sheetBytes) {
+        }
+
+        default void chunkWritten(long sheetBytesRead, ImportReport report) {
+        }
+
+        default boolean isCancelled() {
+            return false;
+        }
+    }
+
+    ImportReport importWorkbook(Path xlsx) throws IOException {
+        return importWorkbook(xlsx, Progress.NONE);
+    }
+
+    // Throws CancellationException when progress asked to stop
+    ImportReport importWorkbook(Path xlsx, Progress progress) throws IOException {
+        ImportReport report = new ImportReport();
+        OPCPackage pkg;
+        try {
+            pkg = OPCPackage.open(xlsx.toFile(), PackageAccess.READ);
+        } catch (OpenXML4JException e) {
+            throw new IOException("Not a valid .xlsx file: " + e.getMessage(), e);
+        }
+        try {
+            XSSFReader reader = new XSSFReader(pkg);
+            XMLReader parser = XMLHelper.newXMLReader();
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            if (sheets.hasNext()) {
+                try (CountingInputStream sheet = new CountingInputStream(sheets.next())) {
+                    progress.started(entrySize(xlsx, sheets.getSheetPart().getPartName().getName()));
+                    ChunkWriter writer = new ChunkWriter(report, progress, sheet);
+                    parser.setContentHandler(new XSSFSheetXMLHandler(
+                            reader.getStylesTable(), new ReadOnlySharedStringsTable(pkg),
+                            new RowHandler(writer), new IsoDateFormatter(), false));
+                    parser.parse(new InputSource(sheet));
+                    writer.flush();
+                }
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Unreadable Excel file: " + e.getMessage(), e);
+        } finally {
+            pkg.revert(); // read-only package, nothing to save
+        }
+        return report;
+    }
+
+    // Uncompressed size of a part inside the .xlsx zip, e.g. /xl/worksheets/sheet1.xml
+    private static long entrySize(Path xlsx, String partName) {
+        try (ZipFile zip = new ZipFile(xlsx.toFile())) {
+            ZipEntry entry = zip.getEntry(partName.startsWith("/") ? partName.substring(1) : partName);
+            return entry == null ? -1 : entry.getSize();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    // Column layout matches the export: JobID (ignored, a new one is generated), Date, SN, ... Supervisor.
+    // Unreadable dates/times are stored as NULL and noted in the report instead of logged per cell.
+    static Object[] toInsertArgs(int excelRow, String[] cells, ImportReport report) {
+        return new Object[]{
+                UUID.randomUUID().toString(),
+                date(excelRow, "Date", cells[1], report), // Ticket_Date as java.sql.Date
+                text(cells[2]), // SN
+                text(cells[3]), // Flight
+                text(cells[4]), // From
+                text(cells[5]), // To
+                time(excelRow, "STA", cells[6], report), // STA as java.sql.Time
+                time(excelRow, "ETA", cells[7], report), // ETA as java.sql.Time
+                time(excelRow, "ATA", cells[8], report), // ATA as java.sql.Time
+                text(cells[9]), // Remarks
+                text(cells[10]), // StaffInCharge
+                text(cells[11])  // Supervisor
+        };
+    }
+
+    private static String text(String cell) {
+        return cell == null ? "" : cell;
+    }
+
+    private static java.sql.Date date(int excelRow, String column, String cell, ImportReport report) {
+        if (RoutineValues.isBlank(cell)) return null;
+        java.sql.Date date = RoutineValues.parseDate(cell);
+        if (date == null) report.invalidValue(excelRow, column, cell);
+        return date;
+    }
+
+    private static java.sql.Time time(int excelRow, String column, String cell, ImportReport report) {
+        if (RoutineValues.isBlank(cell)) return null;
+        java.sql.Time time = RoutineValues.parseTime(cell);
+        if (time == null) report.invalidValue(excelRow, column, cell);
+        return time;
+    }
+
+    // Collects sheet rows into chunks and writes each chunk as one batch/transaction
+    private final class ChunkWriter {
+        private final ImportReport report;
+        private final Progress progress;
+        private final CountingInputStream sheet;
+        private final List<Object[]> rows = new ArrayList<>();
+        private final List<Integer> rowNumbers = new ArrayList<>();
+
+        ChunkWriter(ImportReport report, Progress progress, CountingInputStream sheet) {
+            this.report = report;
+            this.progress = progress;
+            this.sheet = sheet;
+        }
+
+        void add(int excelRow, String[] cells) {
+            if (rows.isEmpty() && progress.isCancelled()) {
+                throw new CancellationException("Import cancelled at row " + excelRow);
+            }
+            rows.add(toInsertArgs(excelRow, cells, report));
+            rowNumbers.add(excelRow);
+            if (rows.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (rows.isEmpty()) return;
+            try {
+                sqlMetrics.time(SqlMetrics.ROUTINE_INSERT,
+                        () -> transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, rows)));
+                report.succeeded(rows.size());
+                sqlMetrics.excelRows("import").increment(rows.size());
+                for (Object[] row : rows) {
+                    published(row);
+                }
+            } catch (DataAccessException ex) {
+                logger.warn("Excel import chunk of {} row(s) starting at row {} failed, retrying row by row: {}",
+                        rows.size(), rowNumbers.get(0), ex.getMostSpecificCause().getMessage());
+                for (int i = 0; i < rows.size(); i++) {
+                    try {
+                        Object[] row = rows.get(i);
+                        sqlMetrics.time(SqlMetrics.ROUTINE_INSERT, () -> jdbcTemplate.update(INSERT_SQL, row));
+                        report.succeeded(1);
+                        sqlMetrics.excelRows("import").increment();
+                        published(row);
+                    } catch (DataAccessException rowEx) {
+                        report.failed(rowNumbers.get(i), rowEx.getMostSpecificCause().getMessage());
+                    }
+                }
+            }
+            logger.debug("Excel import: {} row(s) written so far", report.successCount());
+            rows.clear();
+            rowNumbers.clear();
+            progress.chunkWritten(sheet.count(), report);
+        }
+
+        private void published(Object[] insertArgs) {
+            eventPublisher.publishEvent(RoutineChangedEvent.saved(Routine.fromInsertArgs(insertArgs)));
+        }
+    }
+
+    // Receives SAX row events; row 0 is the header
+    private static final class RowHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final ChunkWriter writer;
+        private final String[] cells = new String[COLUMNS];
+        private int nextColumn;
+
+        RowHandler(ChunkWriter writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            Arrays.fill(cells, null);
+            nextColumn = 0;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (rowNum == 0) return;
+            writer.add(rowNum + 1, cells);
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int col = cellReference == null ? nextColumn : new CellReference(cellReference).getCol();
+            nextColumn = col + 1;
+            if (col < COLUMNS) {
+                cells[col] = formattedValue;
+            }
+        }
+    }
+
+    static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        long count() {
+            return count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buf, int off, int len) throws IOException {
+            int n = super.read(buf, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+
+    // Renders date cells as yyyy-MM-dd and time-only cells as HH:mm:ss, the formats RoutineValues expects
+    private static final class IsoDateFormatter extends DataFormatter {
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString) {
+            if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+                if (value < 1) {
+                    return RoutineValues.formatTime(RoutineValues.excelTimeSeconds(value));
+                }
+                return DateUtil.getLocalDateTime(value).toLocalDate().toString();
+            }
+            return super.formatRawCellContents(value, formatIndex, formatString);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.K1;
+
+import org.springframework.jdbc.core.PreparedStatementCreator;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the filtered and sorted SELECT used by GET /api/routine.
+ *
+ * Only the hot Routine table is read unless the query asks for the archive, see
+ * {@link RoutineArchiver}.
+ *
+ * Rows are always ordered by the requested column with JobID as tie-breaker, so a
+ * page can continue from a {@link RoutineCursor} with a keyset predicate instead of
+ * an OFFSET. SQL Server sorts NULLs first, which the keyset predicates below mirror.
+ */
+final class RoutineQuery {
+
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 500;
+    // Keeps an IN list well below SQL Server's limit of 2100 parameters per statement
+    static final int MAX_JOB_IDS = 1000;
+
+    // Stored columns, in the same order in Routine and RoutineArchive
+    static final String COLUMNS = "JobID, Ticket_Date, SN, Flight, [From], [To], STA, ETA, ATA, Remarks, StaffInCharge, Supervisor";
+
+    private static final String SELECT_LIST = "SELECT JobID, Ticket_Date, SN, Flight, [From], [To], " +
+            "CONVERT(VARCHAR(8), STA, 108) as STA, " +
+            "CONVERT(VARCHAR(8), ETA, 108) as ETA, " +
+            "CONVERT(VARCHAR(8), ATA, 108) as ATA, " +
+            "Remarks, StaffInCharge, Supervisor";
+
+    static final String SELECT_COLUMNS = SELECT_LIST + " FROM Routine";
+
+    // Hot and archived rows together, for ranges that reach into the archive
+    static final String SELECT_COLUMNS_WITH_ARCHIVE = SELECT_LIST + " FROM (SELECT " + COLUMNS + " FROM Routine " +
+            "UNION ALL SELECT " + COLUMNS + " FROM RoutineArchive) AS RoutineAll";
+
+    private final StringBuilder where = new StringBuilder(" WHERE 1=1");
+    private final List<Object> params = new ArrayList<>();
+    private RoutineSortField sortField = RoutineSortField.DATE;
+    private boolean ascending;
+    private int limit; // 0 = unlimited
+    private boolean includeArchive;
+
+    // Restrict to one staff member; pass null for Admin (all rows)
+    RoutineQuery staff(String staffInCharge) {
+        if (staffInCharge != null) {
+            where.append(" AND StaffInCharge = ?");
+            params.add(staffInCharge);
+        }
+        return this;
+    }
+
+    // Search functionality - all fields are searchable
+    RoutineQuery search(String search) {
+        if (search == null || search.isEmpty()) return this;
+        where.append(" AND (");
+        where.append("JobID LIKE ? OR ");
+        where.append("Ticket_Date LIKE ? OR ");
+        where.append("SN LIKE ? OR ");
+        where.append("Flight LIKE ? OR ");
+        where.append("[From] LIKE ? OR ");
+        where.append("[To] LIKE ? OR ");
+        where.append("STA LIKE ? OR ");
+        where.append("ETA LIKE ? OR ");
+        where.append("ATA LIKE ? OR ");
+        where.append("Remarks LIKE ? OR ");
+        where.append("StaffInCharge LIKE ? OR ");
+        where.append("Supervisor LIKE ?");
+        where.append(")");
+
+        String like = "%" + search + "%";
+        // add 12 parameters (corresponding to 12 LIKE conditions)
+        for (int i = 0; i < 12; i++) {
+            params.add(like);
+        }
+        return this;
+    }
+
+    // Ticket_Date within the range (rows without a date always match); includeArchive also reads RoutineArchive
+    RoutineQuery dateRange(RoutineDateRange range, boolean includeArchive) {
+        this.includeArchive = includeArchive;
+        if (range.isAll()) return this;
+        where.append(" AND (Ticket_Date IS NULL OR (1=1");
+        if (range.from() != null) {
+            where.append(" AND Ticket_Date >= ?");
+            params.add(java.sql.Date.valueOf(range.from()));
+        }
+        if (range.to() != null) {
+            where.append(" AND Ticket_Date <= ?");
+            params.add(java.sql.Date.valueOf(range.to()));
+        }
+        where.append("))");
+        return this;
+    }
+
+    // Restrict to the given JobIDs (at most MAX_JOB_IDS), e.g. the matches of the search index
+    RoutineQuery jobIds(List<String> jobIds) {
+        where.append(" AND JobID IN (");
+        for (int i = 0; i < jobIds.size(); i++) {
+            where.append(i == 0 ? "?" : ", ?");
+            params.add(jobIds.get(i));
+        }
+        where.append(")");
+        return this;
+    }
+
+    RoutineQuery sort(RoutineSortField field, boolean ascending) {
+        this.sortField = field;
+        this.ascending = ascending;
+        return this;
+    }
+
+    // Continue after the row the cursor points at; the cursor must match the sort field
+    RoutineQuery after(RoutineCursor cursor) {
+        if (cursor == null) return this;
+        String col = sortField.column();
+        String cmp = ascending ? ">" : "<";
+        if (cursor.sortValue() == null) {
+            // NULLs sort first ascending, last descending
+            if (ascending) {
+                where.append(" AND ((").append(col).append(" IS NULL AND JobID > ?) OR ")
+                        .append(col).append(" IS NOT NULL)");
+            } else {
+                where.append(" AND (").append(col).append(" IS NULL AND JobID < ?)");
+            }
+            params.add(cursor.jobId());
+        } else {
+            where.append(" AND (").append(col).append(' ').append(cmp).append(" ? OR (")
+                    .append(col).append(" = ? AND JobID ").append(cmp).append(" ?)");
+            if (!ascending) {
+                where.append(" OR ").append(col).append(" IS NULL");
+            }
+            where.append(")");
+            params.add(cursor.sortValue());
+            params.add(cursor.sortValue());
+            params.add(cursor.jobId());
+        }
+        return this;
+    }
+
+    // Fetch at most limit rows (0 = no limit)
+    RoutineQuery limit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    String sql() {
+        String direction = ascending ? "ASC" : "DESC";
+        StringBuilder sql = new StringBuilder(includeArchive ? SELECT_COLUMNS_WITH_ARCHIVE : SELECT_COLUMNS).append(where);
+        sql.append(" ORDER BY ").append(sortField.column()).append(' ').append(direction);
+        if (sortField != RoutineSortField.JOB_ID) {
+            sql.append(", JobID ").append(direction);
+        }
+        if (limit > 0) {
+            sql.append(" OFFSET 0 ROWS FETCH NEXT ").append(limit).append(" ROWS ONLY");
+        }
+        return sql.toString();
+    }
+
+    Object[] params() {
+        return params.toArray();
+    }
+
+    // Forward-only, read-only statement that fetches fetchSize rows per round trip,
+    // so callers can stream through a large result without holding it in memory
+    PreparedStatementCreator streaming(int fetchSize) {
+        return streaming(sql(), params(), fetchSize);
+    }
+
+    static PreparedStatementCreator streaming(String sql, Object[] params, int fetchSize) {
+        return con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            for (int i = 0; i < params.length; i++) {
+                ps.setObject(i + 1, params[i]);
+            }
+            return ps;
+        };
+    }
+
+    // Clamp a requested page size into [1, MAX_PAGE_SIZE]
+    static int pageSize(Integer requested) {
+        if (requested == null || requested <= 0) return DEFAULT_PAGE_SIZE;
+        return Math.min(requested, MAX_PAGE_SIZE);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.K1;
+
+/**
+ * Published when Routine changed in bulk (a bulk-copied CSV import) instead of one
+ * {@link RoutineChangedEvent} per row. In-memory views rebuild themselves from the table in
+ * the background (see {@link ReloadableRoutineView}), and change-feed subscribers are told to
+ * reload their list.
+ */
+record RoutineReloadEvent(String reason) {
+}
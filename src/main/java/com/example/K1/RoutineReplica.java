@@ -0,0 +1,208 @@
+package com.example.K1;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Read-side copy of the Routine table that answers sorted, scoped list reads of
+ * GET /api/routine without a query, so clicking another sort column no longer scans and
+ * sorts an unindexed column in SQL Server.
+ *
+ * Every sortable field has its own presorted set (field value, nulls first, then JobID,
+ * the same order as the SQL with its JobID tie-break), so an Admin page is a walk from the
+ * cursor position. Staff reads go through a per-StaffInCharge index and sort only that
+ * member's rows. Search results from {@link RoutineSearchIndex} are sorted the same way.
+ *
+ * Opt-in with routine.replica.enabled: it holds every row once plus one tree entry per row
+ * and sort field. Loaded and kept current by {@link ReloadableRoutineView}; until it is ready,
+ * and while it reloads after a bulk change, reads use SQL. Date-bounded Admin reads take
+ * the rows of the window from the date set and sort only those. It holds the hot table only:
+ * rows moved by {@link RoutineArchiver} leave it, and reads reaching the archive use SQL.
+ */
+@Component
+class RoutineReplica extends ReloadableRoutineView {
+
+    // SQL Server's default collation compares case-insensitively: 'abc' = 'ABC', and only JobID
+    // breaks the tie, exactly like RoutineQuery's ORDER BY, so cursors work on both paths
+    private static final Comparator<String> VALUE_ORDER = Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER);
+    // JobID is the primary key, unique under that collation; the exact text only keeps the sets consistent
+    private static final Comparator<String> JOB_ID_ORDER =
+            Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.naturalOrder()));
+
+    @Value("${routine.replica.enabled:false}")
+    private boolean enabled;
+
+    private final Map<String, Routine> rows = new HashMap<>();
+    private final Map<RoutineSortField, NavigableSet<Routine>> sorted = new EnumMap<>(RoutineSortField.class);
+    private final Map<String, Set<String>> jobIdsByStaff = new HashMap<>(); // by staffKey
+
+    RoutineReplica() {
+        super("Routine replica");
+        for (RoutineSortField field : RoutineSortField.values()) {
+            sorted.put(field, new TreeSet<>(order(field)));
+        }
+    }
+
+    static Comparator<Routine> order(RoutineSortField field) {
+        Comparator<Routine> byValue = Comparator.comparing(r -> field.valueOf(r), VALUE_ORDER);
+        return byValue.thenComparing(Routine::jobId, JOB_ID_ORDER);
+    }
+
+    @Override
+    boolean enabled() {
+        return enabled;
+    }
+
+    @Override
+    void reset() {
+        rows.clear();
+        for (NavigableSet<Routine> index : sorted.values()) {
+            index.clear();
+        }
+        jobIdsByStaff.clear();
+    }
+
+    @Override
+    void loadRow(Routine routine) {
+        upsert(routine);
+    }
+
+    @Override
+    String describe() {
+        return rows.size() + " row(s)";
+    }
+
+    /**
+     * Rows in the order of ORDER BY field [ASC|DESC], JobID [ASC|DESC], starting after the
+     * cursor. staffInCharge null = all rows (Admin); jobIds null = no search filter.
+     * limit 0 = all rows. Null when the replica is not loaded.
+     */
+    List<Routine> query(String staffInCharge, Collection<String> jobIds, RoutineSortField field,
+                        boolean ascending, RoutineCursor after, int limit) {
+        return query(staffInCharge, jobIds, RoutineDateRange.ALL, field, ascending, after, limit);
+    }
+
+    // Same, limited to rows whose Ticket_Date is in the range
+    List<Routine> query(String staffInCharge, Collection<String> jobIds, RoutineDateRange range,
+                        RoutineSortField field, boolean ascending, RoutineCursor after, int limit) {
+        Comparator<Routine> order = ascending ? order(field) : order(field).reversed();
+        Routine from = after == null ? null : probe(field, after.sortValue(), after.jobId());
+        List<Routine> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            // checked under the lock: a reload empties the structures under the write lock
+            if (!isReady()) return null;
+            if (staffInCharge == null && jobIds == null && range.isAll()) {
+                NavigableSet<Routine> index = ascending ? sorted.get(field) : sorted.get(field).descendingSet();
+                for (Routine routine : from == null ? index : index.tailSet(from, false)) {
+                    if (limit > 0 && result.size() == limit) break;
+                    result.add(routine);
+                }
+                return result;
+            }
+
+            if (staffInCharge == null && jobIds == null) {
+                // Admin read of a date window: only the rows of the window, taken from the date index
+                for (Collection<Routine> slice : dateSlices(range)) {
+                    for (Routine routine : slice) {
+                        if (from != null && order.compare(routine, from) <= 0) continue;
+                        result.add(routine);
+                    }
+                }
+            } else {
+                // Scoped or searched: sort the (small) candidate set
+                String staff = RoutineValues.staffKey(staffInCharge);
+                Collection<String> candidates = jobIds != null ? jobIds
+                        : jobIdsByStaff.getOrDefault(staff, Set.of());
+                for (String jobId : candidates) {
+                    Routine routine = rows.get(jobId);
+                    if (routine == null) continue;
+                    if (staff != null && !staff.equals(RoutineValues.staffKey(routine.staffInCharge()))) continue;
+                    if (!range.contains(routine.date())) continue;
+                    if (from != null && order.compare(routine, from) <= 0) continue;
+                    result.add(routine);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        result.sort(order);
+        return limit > 0 && result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    // Rows of the range as views of the date index: undated rows (in every range), then the dated ones
+    private List<Collection<Routine>> dateSlices(RoutineDateRange range) {
+        NavigableSet<Routine> byDate = sorted.get(RoutineSortField.DATE);
+        // null dates sort first, and a null JobID before every row of the same date
+        Routine firstDated = probe(RoutineSortField.DATE, "", null);
+        Collection<Routine> undated = byDate.headSet(firstDated, false);
+        if (range.from() != null && range.to() != null && range.from().isAfter(range.to())) {
+            return List.of(undated);
+        }
+        Routine lower = range.from() == null ? firstDated : probe(RoutineSortField.DATE, range.from().toString(), null);
+        Collection<Routine> dated = range.to() == null ? byDate.tailSet(lower, true)
+                : byDate.subSet(lower, true, probe(RoutineSortField.DATE, range.to().plusDays(1).toString(), null), false);
+        return List.of(undated, dated);
+    }
+
+    // A row that sorts exactly where the cursor points for the given field
+    private static Routine probe(RoutineSortField field, String value, String jobId) {
+        String[] v = new String[RoutineSortField.values().length];
+        v[field.ordinal()] = value;
+        return new Routine(jobId, v[RoutineSortField.DATE.ordinal()], v[RoutineSortField.SN.ordinal()],
+                v[RoutineSortField.FLIGHT.ordinal()], v[RoutineSortField.FROM.ordinal()], v[RoutineSortField.TO.ordinal()],
+                v[RoutineSortField.STA.ordinal()], v[RoutineSortField.ETA.ordinal()], v[RoutineSortField.ATA.ordinal()],
+                v[RoutineSortField.REMARKS.ordinal()], v[RoutineSortField.STAFF.ordinal()], v[RoutineSortField.SUPERVISOR.ordinal()]);
+    }
+
+    // --- mutation, always under the write lock ---
+
+    @Override
+    void apply(RoutineChangedEvent event) {
+        if (event.isDelete()) {
+            remove(event.jobId());
+            return;
+        }
+        upsert(event.routine());
+    }
+
+    private void upsert(Routine routine) {
+        if (routine.jobId() == null) return;
+        remove(routine.jobId());
+        rows.put(routine.jobId(), routine);
+        for (NavigableSet<Routine> index : sorted.values()) {
+            index.add(routine);
+        }
+        if (routine.staffInCharge() != null) {
+            jobIdsByStaff.computeIfAbsent(RoutineValues.staffKey(routine.staffInCharge()), s -> new HashSet<>()).add(routine.jobId());
+        }
+    }
+
+    private void remove(String jobId) {
+        Routine old = rows.remove(jobId);
+        if (old == null) return;
+        for (NavigableSet<Routine> index : sorted.values()) {
+            index.remove(old);
+        }
+        if (old.staffInCharge() != null) {
+            String staff = RoutineValues.staffKey(old.staffInCharge());
+            Set<String> ids = jobIdsByStaff.get(staff);
+            if (ids != null) {
+                ids.remove(jobId);
+                if (ids.isEmpty()) jobIdsByStaff.remove(staff);
+            }
+        }
+    }
+}
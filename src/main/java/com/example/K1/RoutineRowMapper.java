@@ -0,0 +1,36 @@
+package com.example.K1;
+
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps a row of {@link RoutineQuery#SELECT_COLUMNS} by column index, skipping the
+ * per-row column-name lookup of getString(String).
+ */
+final class RoutineRowMapper implements RowMapper<Routine> {
+
+    static final RoutineRowMapper INSTANCE = new RoutineRowMapper();
+
+    private RoutineRowMapper() {
+    }
+
+    @Override
+    public Routine mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new Routine(
+                rs.getString(1),  // JobID
+                rs.getString(2),  // Ticket_Date
+                rs.getString(3),  // SN
+                rs.getString(4),  // Flight
+                rs.getString(5),  // From
+                rs.getString(6),  // To
+                rs.getString(7),  // STA
+                rs.getString(8),  // ETA
+                rs.getString(9),  // ATA
+                rs.getString(10), // Remarks
+                rs.getString(11), // StaffInCharge
+                rs.getString(12)  // Supervisor
+        );
+    }
+}
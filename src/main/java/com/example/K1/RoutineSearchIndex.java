@@ -0,0 +1,255 @@
+package com.example.K1;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Trigram inverted index over the searchable Routine fields, answering the
+ * substring search of GET /api/routine without a LIKE '%x%' scan in the database.
+ *
+ * Each row is a document holding its lower-cased field values separated by NUL, so a
+ * match can never span two fields. Every trigram maps to the ascending list of
+ * documents containing it; a query intersects the lists of its trigrams and confirms
+ * the candidates with a plain contains(). Queries shorter than three characters scan
+ * the documents instead.
+ *
+ * Updates always get a fresh document id, so posting lists stay sorted by appending;
+ * replaced and deleted documents are tombstoned and the lists are compacted once the
+ * tombstones outnumber the live documents.
+ *
+ * The index is loaded and kept current by {@link ReloadableRoutineView}. Until it is ready,
+ * and while it reloads after a bulk change, search falls back to SQL.
+ */
+@Component
+class RoutineSearchIndex extends ReloadableRoutineView {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoutineSearchIndex.class);
+
+    private static final char FIELD_SEPARATOR = '\0';
+
+    @Value("${routine.search-index.enabled:true}")
+    private boolean enabled;
+
+    // document id -> text / JobID; a null text marks a tombstone
+    private String[] texts = new String[1024];
+    private String[] jobIds = new String[1024];
+    private int nextDoc;
+    private int liveDocs;
+    private final Map<String, Integer> docByJobId = new HashMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+
+    RoutineSearchIndex() {
+        super("Routine search index");
+    }
+
+    @Override
+    boolean enabled() {
+        return enabled;
+    }
+
+    @Override
+    void reset() {
+        texts = new String[1024];
+        jobIds = new String[1024];
+        nextDoc = 0;
+        liveDocs = 0;
+        docByJobId.clear();
+        postings.clear();
+    }
+
+    @Override
+    void loadRow(Routine routine) {
+        upsert(routine);
+    }
+
+    @Override
+    String describe() {
+        return liveDocs + " row(s), " + postings.size() + " trigram(s)";
+    }
+
+    /**
+     * JobIDs of all rows with a field containing query (case-insensitive), or null when
+     * the index cannot answer: not loaded yet, or more than maxResults rows match.
+     */
+    List<String> search(String query, int maxResults) {
+        String q = query.toLowerCase(Locale.ROOT);
+        lock.readLock().lock();
+        try {
+            // checked under the lock: a reload empties the index under the write lock
+            if (!isReady()) return null;
+            List<String> result = new ArrayList<>();
+            if (q.length() < 3) {
+                for (int doc = 0; doc < nextDoc; doc++) {
+                    if (texts[doc] != null && texts[doc].contains(q)) {
+                        if (result.size() == maxResults) return null;
+                        result.add(jobIds[doc]);
+                    }
+                }
+                return result;
+            }
+
+            Set<Long> grams = new LinkedHashSet<>();
+            for (int i = 0; i + 3 <= q.length(); i++) {
+                grams.add(trigram(q.charAt(i), q.charAt(i + 1), q.charAt(i + 2)));
+            }
+            Postings[] lists = new Postings[grams.size()];
+            int n = 0;
+            for (Long gram : grams) {
+                Postings list = postings.get(gram);
+                if (list == null) return Collections.emptyList();
+                lists[n++] = list;
+            }
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+            int[] candidates = Arrays.copyOf(lists[0].docs, lists[0].size);
+            int count = candidates.length;
+            for (int l = 1; l < lists.length && count > 0; l++) {
+                count = intersect(candidates, count, lists[l]);
+            }
+            for (int i = 0; i < count; i++) {
+                int doc = candidates[i];
+                if (texts[doc] != null && texts[doc].contains(q)) {
+                    if (result.size() == maxResults) return null;
+                    result.add(jobIds[doc]);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Keeps the entries of candidates[0..count) that are also in list; returns the new count
+    private static int intersect(int[] candidates, int count, Postings list) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < count && j < list.size; i++) {
+            int doc = candidates[i];
+            while (j < list.size && list.docs[j] < doc) j++;
+            if (j < list.size && list.docs[j] == doc) {
+                candidates[kept++] = doc;
+            }
+        }
+        return kept;
+    }
+
+    // --- mutation, always under the write lock ---
+
+    @Override
+    void apply(RoutineChangedEvent event) {
+        if (event.isDelete()) {
+            remove(event.jobId());
+            return;
+        }
+        upsert(event.routine());
+    }
+
+    private void upsert(Routine routine) {
+        String jobId = routine.jobId();
+        if (jobId == null) return;
+        remove(jobId);
+
+        StringBuilder text = new StringBuilder();
+        appendField(text, routine.jobId());
+        appendField(text, routine.date());
+        appendField(text, routine.sn());
+        appendField(text, routine.flight());
+        appendField(text, routine.from());
+        appendField(text, routine.to());
+        appendField(text, routine.sta());
+        appendField(text, routine.eta());
+        appendField(text, routine.ata());
+        appendField(text, routine.remarks());
+        appendField(text, routine.staffInCharge());
+        appendField(text, routine.supervisor());
+        if (nextDoc == texts.length) {
+            texts = Arrays.copyOf(texts, texts.length * 2);
+            jobIds = Arrays.copyOf(jobIds, jobIds.length * 2);
+        }
+        int doc = nextDoc++;
+        texts[doc] = text.toString();
+        jobIds[doc] = jobId;
+        docByJobId.put(jobId, doc);
+        liveDocs++;
+        addPostings(doc, texts[doc]);
+    }
+
+    private static void appendField(StringBuilder text, String value) {
+        if (text.length() > 0) text.append(FIELD_SEPARATOR);
+        if (value != null) text.append(value.toLowerCase(Locale.ROOT));
+    }
+
+    private void remove(String jobId) {
+        Integer doc = docByJobId.remove(jobId);
+        if (doc == null) return;
+        texts[doc] = null;
+        jobIds[doc] = null;
+        liveDocs--;
+        if (nextDoc - liveDocs > Math.max(liveDocs, 10_000)) {
+            compact();
+        }
+    }
+
+    private void addPostings(int doc, String text) {
+        long last = -1;
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            char a = text.charAt(i), b = text.charAt(i + 1), c = text.charAt(i + 2);
+            if (a == FIELD_SEPARATOR || b == FIELD_SEPARATOR || c == FIELD_SEPARATOR) continue;
+            long gram = trigram(a, b, c);
+            if (gram == last) continue;
+            last = gram;
+            postings.computeIfAbsent(gram, g -> new Postings()).add(doc);
+        }
+    }
+
+    // Renumbers the live documents densely and rebuilds every posting list
+    private void compact() {
+        String[] oldTexts = texts;
+        String[] oldJobIds = jobIds;
+        int oldCount = nextDoc;
+        texts = new String[Math.max(1024, liveDocs * 2)];
+        jobIds = new String[texts.length];
+        nextDoc = 0;
+        docByJobId.clear();
+        postings.clear();
+        for (int old = 0; old < oldCount; old++) {
+            if (oldTexts[old] == null) continue;
+            int doc = nextDoc++;
+            texts[doc] = oldTexts[old];
+            jobIds[doc] = oldJobIds[old];
+            docByJobId.put(jobIds[doc], doc);
+            addPostings(doc, texts[doc]);
+        }
+        logger.debug("Routine search index compacted to {} document(s)", nextDoc);
+    }
+
+    private static long trigram(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    // Ascending document ids; documents are only ever appended with a larger id
+    private static final class Postings {
+        int[] docs = new int[4];
+        int size;
+
+        void add(int doc) {
+            if (size > 0 && docs[size - 1] == doc) return;
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+    }
+}
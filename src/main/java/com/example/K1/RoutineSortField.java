@@ -0,0 +1,75 @@
+package com.example.K1;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Sortable Routine fields: frontend sort key -> database column
+enum RoutineSortField {
+    DATE("date", "Ticket_Date"),
+    SN("sn", "SN"),
+    FLIGHT("flight", "Flight"),
+    FROM("from", "[From]"),
+    TO("to", "[To]"),
+    STA("sta", "STA"),
+    ETA("eta", "ETA"),
+    ATA("ata", "ATA"),
+    REMARKS("remarks", "Remarks"),
+    STAFF("employeeID", "StaffInCharge"),
+    SUPERVISOR("supervisor", "Supervisor"),
+    JOB_ID("jobID", "JobID");
+
+    private static final Map<String, RoutineSortField> BY_KEY = new HashMap<>();
+
+    static {
+        for (RoutineSortField field : values()) {
+            BY_KEY.put(field.key, field);
+        }
+    }
+
+    private final String key;
+    private final String column;
+
+    RoutineSortField(String key, String column) {
+        this.key = key;
+        this.column = column;
+    }
+
+    // Frontend sort key
+    String key() {
+        return key;
+    }
+
+    // The value of this field in a row, as the cursor stores it
+    String valueOf(Routine routine) {
+        return switch (this) {
+            case DATE -> routine.date();
+            case SN -> routine.sn();
+            case FLIGHT -> routine.flight();
+            case FROM -> routine.from();
+            case TO -> routine.to();
+            case STA -> routine.sta();
+            case ETA -> routine.eta();
+            case ATA -> routine.ata();
+            case REMARKS -> routine.remarks();
+            case STAFF -> routine.staffInCharge();
+            case SUPERVISOR -> routine.supervisor();
+            case JOB_ID -> routine.jobId();
+        };
+    }
+
+    // Column as it may appear in SQL (bracketed where it is a reserved word)
+    String column() {
+        return column;
+    }
+
+    // Exact frontend key lookup; null when unknown
+    static RoutineSortField fromKey(String key) {
+        return key == null ? null : BY_KEY.get(key);
+    }
+
+    // Unknown keys fall back to Ticket_Date, which keeps the ORDER BY injection-safe
+    static RoutineSortField fromRequest(String sortBy) {
+        if (sortBy == null) return DATE;
+        return BY_KEY.getOrDefault(sortBy, DATE);
+    }
+}
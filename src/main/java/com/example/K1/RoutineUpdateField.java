@@ -0,0 +1,51 @@
+package com.example.K1;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Routine fields a client may change: request key (as in PUT /api/routine/{jobId}) -> database column.
+// Kept apart from RoutineSortField so making a field sortable never makes it writable.
+enum RoutineUpdateField {
+    DATE("date", "Ticket_Date"),
+    SN("sn", "SN"),
+    FLIGHT("flight", "Flight"),
+    FROM("from", "[From]"),
+    TO("to", "[To]"),
+    STA("sta", "STA"),
+    ETA("eta", "ETA"),
+    ATA("ata", "ATA"),
+    REMARKS("remarks", "Remarks"),
+    STAFF("employeeID", "StaffInCharge"),
+    SUPERVISOR("supervisor", "Supervisor");
+
+    private static final Map<String, RoutineUpdateField> BY_KEY = new HashMap<>();
+
+    static {
+        for (RoutineUpdateField field : values()) {
+            BY_KEY.put(field.key, field);
+        }
+    }
+
+    private final String key;
+    private final String column;
+
+    RoutineUpdateField(String key, String column) {
+        this.key = key;
+        this.column = column;
+    }
+
+    // Request key
+    String key() {
+        return key;
+    }
+
+    // Column as it may appear in SQL (bracketed where it is a reserved word)
+    String column() {
+        return column;
+    }
+
+    // Exact request key lookup; null when the field cannot be updated
+    static RoutineUpdateField fromKey(String key) {
+        return key == null ? null : BY_KEY.get(key);
+    }
+}
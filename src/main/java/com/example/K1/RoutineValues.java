@@ -0,0 +1,166 @@
+package com.example.K1;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Locale;
+
+/**
+ * Conversions for routine values coming from the frontend or an uploaded sheet.
+ *
+ * The parsers walk the characters once and return a primitive, with {@link #INVALID}
+ * instead of an exception for a value they cannot read, so a bad cell costs no more
+ * than a good one and the caller decides how to report it. Only the final JDBC value
+ * (java.sql.Date / Time) is allocated.
+ */
+final class RoutineValues {
+
+    static final int INVALID = -1;
+
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+
+    private RoutineValues() {
+    }
+
+    /**
+     * Seconds after midnight for H, HH, H:m, HH:mm, H:mm:ss or HH:mm:ss, or for an Excel
+     * time fraction written as a decimal below 1 (e.g. 0.5 = 12:00:00). Surrounding blanks
+     * are ignored. Returns INVALID for anything else, including out-of-range fields.
+     */
+    static int secondOfDay(CharSequence s) {
+        if (s == null) return INVALID;
+        int start = 0;
+        int end = s.length();
+        while (start < end && s.charAt(start) <= ' ') start++;
+        while (end > start && s.charAt(end - 1) <= ' ') end--;
+        if (start == end) return INVALID;
+        if (s.charAt(start) == '.' || (end - start > 1 && s.charAt(start) == '0' && s.charAt(start + 1) == '.')) {
+            return fractionOfDay(s, s.charAt(start) == '.' ? start + 1 : start + 2, end);
+        }
+
+        int hour = 0, minute = 0, second = 0;
+        int part = 0, value = 0, digits = 0;
+        for (int i = start; i <= end; i++) {
+            char c = i < end ? s.charAt(i) : ':'; // a virtual separator closes the last part
+            if (c >= '0' && c <= '9') {
+                if (++digits > 2) return INVALID;
+                value = value * 10 + (c - '0');
+                continue;
+            }
+            if (c != ':' || digits == 0) return INVALID;
+            switch (part++) {
+                case 0 -> hour = value;
+                case 1 -> minute = value;
+                case 2 -> second = value;
+                default -> {
+                    return INVALID;
+                }
+            }
+            value = 0;
+            digits = 0;
+        }
+        if (hour > 23 || minute > 59 || second > 59) return INVALID;
+        return hour * 3600 + minute * 60 + second;
+    }
+
+    // Digits after the decimal point of a day fraction, rounded to the nearest second
+    private static int fractionOfDay(CharSequence s, int from, int end) {
+        if (from == end) return INVALID;
+        double fraction = 0;
+        double scale = 0.1;
+        for (int i = from; i < end; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return INVALID;
+            fraction += (c - '0') * scale;
+            scale /= 10;
+        }
+        return excelTimeSeconds(fraction);
+    }
+
+    // Seconds after midnight of the time part of an Excel serial date/time (POI numeric cell value)
+    static int excelTimeSeconds(double excelValue) {
+        if (!(excelValue >= 0)) return INVALID; // also rejects NaN
+        double fraction = excelValue - Math.floor(excelValue);
+        int seconds = (int) Math.round(fraction * SECONDS_PER_DAY);
+        return seconds == SECONDS_PER_DAY ? 0 : seconds;
+    }
+
+    /**
+     * yyyy-M-d (month and day with one or two digits, as java.sql.Date.valueOf accepts)
+     * packed as yyyyMMdd, or INVALID when malformed or not a real calendar day.
+     */
+    static int packedDate(CharSequence s) {
+        if (s == null) return INVALID;
+        int start = 0;
+        int end = s.length();
+        while (start < end && s.charAt(start) <= ' ') start++;
+        while (end > start && s.charAt(end - 1) <= ' ') end--;
+
+        int year = 0, month = 0, day = 0;
+        int part = 0, value = 0, digits = 0;
+        for (int i = start; i <= end; i++) {
+            char c = i < end ? s.charAt(i) : '-';
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                digits++;
+                continue;
+            }
+            if (c != '-' || part > 2) return INVALID;
+            if (part == 0 ? digits != 4 : digits == 0 || digits > 2) return INVALID;
+            switch (part++) {
+                case 0 -> year = value;
+                case 1 -> month = value;
+                default -> day = value;
+            }
+            value = 0;
+            digits = 0;
+        }
+        if (part != 3 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) return INVALID;
+        return year * 10000 + month * 100 + day;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    // expects yyyy-MM-dd; null when empty or invalid
+    static java.sql.Date parseDate(String dateStr) {
+        int packed = packedDate(dateStr);
+        if (packed == INVALID) return null;
+        return java.sql.Date.valueOf(LocalDate.of(packed / 10000, packed / 100 % 100, packed % 100));
+    }
+
+    // expects HH:mm:ss or one of the shorter forms of secondOfDay; null when empty or invalid
+    static java.sql.Time parseTime(String timeStr) {
+        int seconds = secondOfDay(timeStr);
+        if (seconds == INVALID) return null;
+        return java.sql.Time.valueOf(LocalTime.ofSecondOfDay(seconds));
+    }
+
+    // HH:mm:ss for a second of the day
+    static String formatTime(int secondOfDay) {
+        char[] chars = new char[8];
+        int h = secondOfDay / 3600, m = secondOfDay / 60 % 60, sec = secondOfDay % 60;
+        chars[0] = (char) ('0' + h / 10);
+        chars[1] = (char) ('0' + h % 10);
+        chars[2] = ':';
+        chars[3] = (char) ('0' + m / 10);
+        chars[4] = (char) ('0' + m % 10);
+        chars[5] = ':';
+        chars[6] = (char) ('0' + sec / 10);
+        chars[7] = (char) ('0' + sec % 10);
+        return new String(chars);
+    }
+
+    // StaffInCharge as SQL Server compares it (= ignores case and trailing blanks)
+    static String staffKey(String staffInCharge) {
+        return staffInCharge == null ? null : staffInCharge.stripTrailing().toLowerCase(Locale.ROOT);
+    }
+
+    static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
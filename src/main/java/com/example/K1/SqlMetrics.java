@@ -0,0 +1,68 @@
+package com.example.K1;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer meters for the application's own JDBC statements and Excel row throughput,
+ * published next to the http.server.requests and hikaricp.* meters at /actuator/prometheus.
+ *
+ * k1.sql{statement}          - latency per SQL statement, with p50/p99; reads whose rows are
+ *                              written out as they arrive (routine_export, routine_stream)
+ *                              include that work and have their own statement tag
+ * k1.excel.rows{direction}   - rows imported / exported, rate() gives rows per second
+ */
+@Component
+class SqlMetrics {
+
+    static final String PERMISSION_LOOKUP = "permission_lookup";
+    static final String ROUTINE_SELECT = "routine_select";
+    static final String ROUTINE_EXPORT = "routine_export";
+    static final String ROUTINE_STREAM = "routine_stream";
+    static final String ROUTINE_UPDATE = "routine_update";
+    static final String ROUTINE_INSERT = "routine_insert";
+    static final String ROUTINE_DELETE = "routine_delete";
+    static final String ROUTINE_BULK_COPY = "routine_bulk_copy";
+    static final String ROUTINE_ARCHIVE = "routine_archive";
+    static final String LOGIN = "login";
+    static final String USER_SELECT = "user_select";
+    static final String USER_WRITE = "user_write";
+
+    @Autowired
+    private MeterRegistry registry;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> excelRows = new ConcurrentHashMap<>();
+
+    <T> T time(String statement, Supplier<T> call) {
+        return timer(statement).record(call);
+    }
+
+    void time(String statement, Runnable call) {
+        timer(statement).record(call);
+    }
+
+    Timer timer(String statement) {
+        return timers.computeIfAbsent(statement, s -> Timer.builder("k1.sql")
+                .description("Latency of the application's JDBC statements")
+                .tag("statement", s)
+                .publishPercentiles(0.5, 0.99)
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+
+    // direction is "import" or "export"
+    Counter excelRows(String direction) {
+        return excelRows.computeIfAbsent(direction, d -> Counter.builder("k1.excel.rows")
+                .description("Routine rows read from or written to Excel")
+                .tag("direction", d)
+                .register(registry));
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.K1;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Logs the total boot time and the slowest startup steps (bean instantiation, context
+ * refresh phases) once the application is ready. The full timeline is available from
+ * /actuator/startup; this only reads the buffer so the endpoint still sees every step.
+ */
+@Component
+class StartupTimingReport {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimingReport.class);
+
+    @Autowired
+    private ApplicationStartup applicationStartup;
+
+    @Value("${k1.startup.report.slowest-steps:10}")
+    private int slowestSteps;
+
+    @EventListener
+    void onReady(ApplicationReadyEvent event) {
+        Duration total = event.getTimeTaken();
+        if (!(applicationStartup instanceof BufferingApplicationStartup buffering) || slowestSteps <= 0) {
+            logger.info("Started in {} ms", total == null ? -1 : total.toMillis());
+            return;
+        }
+        List<StartupTimeline.TimelineEvent> events = buffering.getBufferedTimeline().getEvents();
+        String slowest = events.stream()
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(slowestSteps)
+                .map(StartupTimingReport::describe)
+                .collect(Collectors.joining("\n  ", "\n  ", ""));
+        logger.info("Started in {} ms ({} startup steps recorded). Slowest steps:{}",
+                total == null ? -1 : total.toMillis(), events.size(), slowest);
+    }
+
+    // e.g. "412 ms spring.beans.instantiate [beanName=routineSearchIndex]"
+    private static String describe(StartupTimeline.TimelineEvent event) {
+        StringBuilder line = new StringBuilder()
+                .append(event.getDuration().toMillis()).append(" ms ")
+                .append(event.getStartupStep().getName());
+        String separator = " [";
+        for (StartupStep.Tag tag : event.getStartupStep().getTags()) {
+            line.append(separator).append(tag.getKey()).append('=').append(tag.getValue());
+            separator = ", ";
+        }
+        if (!separator.equals(" [")) {
+            line.append(']');
+        }
+        return line.toString();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.K1;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Request handling on virtual threads (spring.threads.virtual.enabled) lets slow exports and
+ * imports block without holding a Tomcat worker, so logins no longer queue behind them. The
+ * JDBC pool then becomes the only bounded resource, and the pool's DataSource is wrapped in a
+ * {@link ConnectionLimitingDataSource} sized to it (or to k1.datasource.max-concurrent-connections).
+ */
+@Configuration
+public class VirtualThreadConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    @Bean
+    static BeanPostProcessor connectionLimiter(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource hikari)
+                        || !environment.getProperty("k1.datasource.connection-limit.enabled", Boolean.class, true)) {
+                    return bean;
+                }
+                int max = environment.getProperty("k1.datasource.max-concurrent-connections", Integer.class, 0);
+                if (max <= 0) {
+                    max = hikari.getMaximumPoolSize();
+                }
+                Duration timeout = environment.getProperty("k1.datasource.connection-limit.acquire-timeout",
+                        Duration.class, Duration.ofMillis(hikari.getConnectionTimeout()));
+                logger.info("Limiting {} to {} concurrent connections (virtual threads: {})", beanName, max,
+                        environment.getProperty("spring.threads.virtual.enabled", "false"));
+                return new ConnectionLimitingDataSource(hikari, max, timeout);
+            }
+        };
+    }
+}
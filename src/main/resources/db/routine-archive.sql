@@ -0,0 +1,11 @@
+-- Cold storage for Routine rows moved by RoutineArchiver (routine.archive.*).
+-- Run once per database before enabling archiving. The columns are copied from Routine
+-- (types, lengths and NULL-ability), so the archive matches whatever the hot table declares.
+SELECT TOP 0 JobID, Ticket_Date, SN, Flight, [From], [To], STA, ETA, ATA, Remarks, StaffInCharge, Supervisor
+INTO RoutineArchive
+FROM Routine;
+
+ALTER TABLE RoutineArchive ADD CONSTRAINT PK_RoutineArchive PRIMARY KEY (JobID);
+
+CREATE INDEX IX_RoutineArchive_Date ON RoutineArchive (Ticket_Date, JobID);
+CREATE INDEX IX_RoutineArchive_Staff ON RoutineArchive (StaffInCharge, Ticket_Date);
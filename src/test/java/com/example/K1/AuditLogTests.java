@@ -0,0 +1,54 @@
+package com.example.K1;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditLogTests {
+
+    private static AuditLog auditLog(Path file, int capacity, boolean enabled) {
+        AuditLog auditLog = new AuditLog();
+        ReflectionTestUtils.setField(auditLog, "objectMapper", new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(auditLog, "enabled", enabled);
+        ReflectionTestUtils.setField(auditLog, "file", file);
+        ReflectionTestUtils.setField(auditLog, "queueCapacity", capacity);
+        ReflectionTestUtils.setField(auditLog, "batchSize", 16);
+        ReflectionTestUtils.setField(auditLog, "flushInterval", Duration.ofMillis(50));
+        auditLog.start();
+        return auditLog;
+    }
+
+    @Test
+    void appendsOneJsonLinePerEvent(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("audit.jsonl");
+        AuditLog auditLog = auditLog(file, 100, true);
+        auditLog.record("login", "E1", null, true, null);
+        auditLog.record("routine.delete", "E2", "job-1", false, "not admin");
+        auditLog.stop();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("\"action\":\"login\""));
+        assertTrue(lines.get(1).contains("\"target\":\"job-1\""));
+        assertEquals(0, auditLog.dropped());
+    }
+
+    @Test
+    void dropsInsteadOfBlockingWhenFull(@TempDir Path dir) {
+        // started disabled, so no writer drains the queue
+        AuditLog auditLog = auditLog(dir.resolve("audit.jsonl"), 2, false);
+        ReflectionTestUtils.setField(auditLog, "enabled", true);
+        for (int i = 0; i < 5; i++) {
+            auditLog.record("login", "E" + i, null, true, null);
+        }
+        assertEquals(3, auditLog.dropped());
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.K1;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkheadTests {
+
+    @Test
+    void rejectsAtOnceWhenNoQueueIsAllowed() throws InterruptedException {
+        Bulkhead bulkhead = new Bulkhead("test", 1, 0, Duration.ofSeconds(10));
+        assertEquals(Bulkhead.Outcome.ADMITTED, bulkhead.acquire());
+        assertEquals(Bulkhead.Outcome.QUEUE_FULL, bulkhead.acquire());
+        bulkhead.release();
+        assertEquals(Bulkhead.Outcome.ADMITTED, bulkhead.acquire());
+    }
+
+    @Test
+    void queuedRequestTimesOutWithoutASlot() throws InterruptedException {
+        Bulkhead bulkhead = new Bulkhead("test", 1, 1, Duration.ofMillis(50));
+        assertEquals(Bulkhead.Outcome.ADMITTED, bulkhead.acquire());
+        assertEquals(Bulkhead.Outcome.TIMED_OUT, bulkhead.acquire());
+        assertEquals(0, bulkhead.queued());
+    }
+
+    @Test
+    void queuedRequestGetsTheReleasedSlot() throws InterruptedException {
+        Bulkhead bulkhead = new Bulkhead("test", 1, 1, Duration.ofSeconds(10));
+        assertEquals(Bulkhead.Outcome.ADMITTED, bulkhead.acquire());
+        CountDownLatch admitted = new CountDownLatch(1);
+        Thread waiter = Thread.ofVirtual().start(() -> {
+            try {
+                if (bulkhead.acquire() == Bulkhead.Outcome.ADMITTED) admitted.countDown();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        while (bulkhead.queued() == 0) Thread.onSpinWait();
+        bulkhead.release();
+        assertTrue(admitted.await(5, TimeUnit.SECONDS));
+        assertEquals(1, bulkhead.active());
+        waiter.join();
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.K1;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactTableTests {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void writesColumnsDictionariesAndRows() throws Exception {
+        List<Routine> routines = List.of(
+                new Routine("j1", "2025-01-02", "SN1", "CX1", "HKG", "TPE", "10:00:00", "10:05:00", null, "", "E00001", "S1"),
+                new Routine("j2", "2025-01-02", "SN2", "CX2", "TPE", "HKG", "11:00:00", "11:00:00", "11:20:00", "", "E00002", "S1"));
+        JsonNode json = mapper.readTree(mapper.writeValueAsString(CompactTable.routines(routines)));
+
+        assertEquals(12, json.get("columns").size());
+        assertEquals("from", json.get("columns").get(4).asText());
+        assertEquals("HKG", json.get("dictionaries").get("from").get(0).asText());
+        assertEquals("TPE", json.get("dictionaries").get("from").get(1).asText());
+
+        JsonNode second = json.get("rows").get(1);
+        assertEquals("j2", second.get(0).asText());
+        assertEquals(0, second.get(1).asInt()); // same date as the first row
+        assertEquals(1, second.get(4).asInt()); // from = TPE
+        assertEquals(1, second.get(5).asInt()); // to = HKG, after TPE in the "to" dictionary
+    }
+
+    @Test
+    void flightAndRemarksArePlain() throws Exception {
+        List<Routine> routines = List.of(new Routine("j1", "2025-01-02", "SN1", "CX1", "HKG", "TPE", null, null, null, "late crew", "E00001", "S1"));
+        JsonNode json = mapper.readTree(mapper.writeValueAsString(CompactTable.routines(routines)));
+
+        assertFalse(json.get("dictionaries").has("flight"));
+        assertFalse(json.get("dictionaries").has("remarks"));
+        JsonNode row = json.get("rows").get(0);
+        assertEquals("CX1", row.get(3).asText());
+        assertEquals("late crew", row.get(9).asText());
+    }
+
+    @Test
+    void nullsStayNull() throws Exception {
+        List<Routine> routines = List.of(new Routine("j1", null, null, null, null, null, null, null, null, null, null, null));
+        JsonNode row = mapper.readTree(mapper.writeValueAsString(CompactTable.routines(routines))).get("rows").get(0);
+        assertTrue(row.get(1).isNull());
+        assertTrue(row.get(2).isNull());
+    }
+}
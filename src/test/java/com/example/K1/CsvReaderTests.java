@@ -0,0 +1,35 @@
+package com.example.K1;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvReaderTests {
+
+    @Test
+    void readsPlainAndQuotedFields() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("a,b,c\r\n1,\"x, \"\"y\"\"\",\n"));
+        assertArrayEquals(new String[]{"a", "b", "c"}, reader.next());
+        assertArrayEquals(new String[]{"1", "x, \"y\"", ""}, reader.next());
+        assertEquals(2, reader.recordNumber());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void quotedFieldsMayContainLineBreaks() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("\uFEFFJobID,Remarks\n1,\"Gate change\nCrew swap\"\n2,ok"));
+        assertArrayEquals(new String[]{"JobID", "Remarks"}, reader.next());
+        assertArrayEquals(new String[]{"1", "Gate change\nCrew swap"}, reader.next());
+        assertArrayEquals(new String[]{"2", "ok"}, reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void unterminatedQuoteIsAnError() {
+        CsvReader reader = new CsvReader(new StringReader("1,\"open"));
+        assertThrows(IOException.class, reader::next);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.K1;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Two embedded databases stand in for the primary and the read replica
+class ReadWriteRoutingTests {
+
+    private final DataSource primary = SyntheticFlightData.embeddedDatabase("rw-primary");
+    private final DataSource replica = SyntheticFlightData.embeddedDatabase("rw-replica");
+    private final JdbcTemplate jdbc = new JdbcTemplate(new ReadWriteRoutingDataSource(primary, replica));
+
+    @AfterEach
+    void clearRoute() {
+        ReadWriteRoutingDataSource.set(null);
+        new JdbcTemplate(primary).update("DELETE FROM EmployeeInfo");
+        new JdbcTemplate(replica).update("DELETE FROM EmployeeInfo");
+    }
+
+    private int employees() {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM EmployeeInfo", Integer.class);
+    }
+
+    private static MockHttpServletRequest request(String method, String employeeID) {
+        return request(method, "/api/aggregates", employeeID);
+    }
+
+    private static MockHttpServletRequest request(String method, String path, String employeeID) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setParameter("employeeID", employeeID);
+        return request;
+    }
+
+    @Test
+    void withoutRouteEverythingUsesThePrimary() {
+        jdbc.update("INSERT INTO EmployeeInfo (Employee_ID, Name, Encry_Pw, Permission) VALUES ('E1', 'A', 'x', 'Staff')");
+        assertEquals(1, employees());
+        ReadWriteRoutingDataSource.set(ReadWriteRoutingDataSource.Route.REPLICA);
+        assertEquals(0, employees());
+    }
+
+    @Test
+    void onPrimaryOverridesAndRestoresTheRoute() {
+        jdbc.update("INSERT INTO EmployeeInfo (Employee_ID, Name, Encry_Pw, Permission) VALUES ('E1', 'A', 'x', 'Staff')");
+        ReadWriteRoutingDataSource.set(ReadWriteRoutingDataSource.Route.REPLICA);
+        int onPrimary = ReadWriteRoutingDataSource.onPrimary(this::employees);
+        assertEquals(1, onPrimary);
+        assertEquals(ReadWriteRoutingDataSource.Route.REPLICA, ReadWriteRoutingDataSource.current());
+        assertEquals(0, employees());
+    }
+
+    @Test
+    void readsGoToTheReplicaUnlessTheClientJustWrote() {
+        ReadWriteRoutingInterceptor interceptor = new ReadWriteRoutingInterceptor(Duration.ofMinutes(1));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request("GET", "E1"), response, null);
+        assertEquals(ReadWriteRoutingDataSource.Route.REPLICA, ReadWriteRoutingDataSource.current());
+        interceptor.afterCompletion(request("GET", "E1"), response, null, null);
+        assertNull(ReadWriteRoutingDataSource.current());
+
+        interceptor.preHandle(request("PUT", "E1"), response, null);
+        assertEquals(ReadWriteRoutingDataSource.Route.PRIMARY, ReadWriteRoutingDataSource.current());
+        interceptor.afterCompletion(request("PUT", "E1"), response, null, null);
+
+        interceptor.preHandle(request("GET", "E1"), response, null);
+        assertEquals(ReadWriteRoutingDataSource.Route.PRIMARY, ReadWriteRoutingDataSource.current());
+        interceptor.preHandle(request("GET", "E2"), response, null);
+        assertEquals(ReadWriteRoutingDataSource.Route.REPLICA, ReadWriteRoutingDataSource.current());
+    }
+
+    @Test
+    void routineReadsGoToTheReplica() {
+        ReadWriteRoutingInterceptor interceptor = new ReadWriteRoutingInterceptor(Duration.ofMinutes(1));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request("GET", "/api/routine", "E1"), response, null);
+        assertEquals(ReadWriteRoutingDataSource.Route.REPLICA, ReadWriteRoutingDataSource.current());
+        interceptor.preHandle(request("GET", "/api/routine/export", "E1"), response, null);
+        assertEquals(ReadWriteRoutingDataSource.Route.REPLICA, ReadWriteRoutingDataSource.current());
+    }
+
+    @Test
+    void expiredWritersAreSwept() throws InterruptedException {
+        ReadWriteRoutingInterceptor interceptor = new ReadWriteRoutingInterceptor(Duration.ofMillis(20));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        for (int i = 0; i < 100; i++) {
+            interceptor.preHandle(request("PUT", "E" + i), response, null);
+        }
+        Thread.sleep(50);
+        interceptor.preHandle(request("PUT", "E-last"), response, null);
+        assertEquals(1, interceptor.trackedClients());
+    }
+}
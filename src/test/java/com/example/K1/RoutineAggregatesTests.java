@@ -0,0 +1,138 @@
+package com.example.K1;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoutineAggregatesTests {
+
+    private static final LocalDate FIRST = LocalDate.parse("2025-01-01");
+    private static final LocalDate LAST = LocalDate.parse("2025-01-31");
+
+    private static Routine row(String jobId, String date, String from, String to, String sta, String ata, String staff) {
+        return new Routine(jobId, date, null, "CX" + jobId, from, to, sta, sta, ata, null, staff, null);
+    }
+
+    private static RoutineAggregates aggregates() {
+        RoutineAggregates aggregates = new RoutineAggregates();
+        ReflectionTestUtils.setField(aggregates, "enabled", true);
+        ReflectionTestUtils.setField(aggregates, "ready", true);
+        return aggregates;
+    }
+
+    // What a load of these rows would produce
+    private static RoutineAggregates recomputed(Routine... rows) {
+        RoutineAggregates aggregates = aggregates();
+        for (Routine routine : rows) {
+            aggregates.onRoutineChanged(RoutineChangedEvent.saved(routine));
+        }
+        return aggregates;
+    }
+
+    private static void assertSameAggregates(RoutineAggregates expected, RoutineAggregates actual) {
+        assertEquals(expected.summary(), actual.summary());
+        assertEquals(expected.staffWorkload(), actual.staffWorkload());
+        assertEquals(expected.days(FIRST, LAST), actual.days(FIRST, LAST));
+    }
+
+    @Test
+    void delayIsMinutesFromReferenceToAta() {
+        assertEquals(25, RoutineAggregates.delayMinutes("10:00:00", "10:25:30"));
+        assertEquals(-5, RoutineAggregates.delayMinutes("10:00:00", "09:55:00"));
+    }
+
+    @Test
+    void delayTakesTheShorterWayAroundMidnight() {
+        assertEquals(20, RoutineAggregates.delayMinutes("23:50:00", "00:10:00"));
+        assertEquals(-15, RoutineAggregates.delayMinutes("00:05:00", "23:50:00"));
+    }
+
+    @Test
+    void missingTimesHaveNoDelay() {
+        assertEquals(Integer.MIN_VALUE, RoutineAggregates.delayMinutes("10:00:00", null));
+        assertEquals(Integer.MIN_VALUE, RoutineAggregates.delayMinutes("", "10:00:00"));
+    }
+
+    @Test
+    void updateReplacesTheOldContribution() {
+        Routine before = row("1", "2025-01-02", "HKG", "NRT", "10:00:00", null, "E1");
+        Routine after = row("1", "2025-01-02", "HKG", "TPE", "10:00:00", "10:40:00", "E2");
+        Routine other = row("2", "2025-01-02", "HKG", "NRT", "11:00:00", "11:05:00", "E1");
+
+        RoutineAggregates aggregates = recomputed(before, other);
+        aggregates.onRoutineChanged(RoutineChangedEvent.updated(after, "E1"));
+
+        assertSameAggregates(recomputed(after, other), aggregates);
+        assertEquals(2, aggregates.summary().get("totalFlights"));
+        assertEquals(0L, aggregates.summary().get("notLanded"));
+        assertEquals(1, (int) aggregates.staffWorkload().get("E2").get("late"));
+    }
+
+    @Test
+    void deleteTakesTheRowOut() {
+        Routine kept = row("1", "2025-01-02", "HKG", "NRT", "10:00:00", "10:00:00", "E1");
+        Routine deleted = row("2", "2025-01-03", "SIN", "NRT", "11:00:00", null, "E2");
+
+        RoutineAggregates aggregates = recomputed(kept, deleted);
+        aggregates.onRoutineChanged(RoutineChangedEvent.deleted("2", "E2"));
+
+        assertSameAggregates(recomputed(kept), aggregates);
+        // nothing is left behind at zero
+        assertFalse(aggregates.staffWorkload().containsKey("E2"));
+        assertEquals(List.of("2025-01-02"), aggregates.days(FIRST, LAST).stream().map(d -> d.get("date")).toList());
+    }
+
+    @Test
+    void moveToAnotherDayLeavesTheOldDay() {
+        Routine before = row("1", "2025-01-02", "HKG", "NRT", "10:00:00", null, "E1");
+        Routine after = row("1", "2025-01-09", "HKG", "NRT", "10:00:00", null, "E1");
+
+        RoutineAggregates aggregates = recomputed(before);
+        aggregates.onRoutineChanged(RoutineChangedEvent.updated(after, "E1"));
+
+        assertSameAggregates(recomputed(after), aggregates);
+        List<Object> dates = aggregates.days(FIRST, LAST).stream().map(d -> d.get("date")).toList();
+        assertEquals(List.of("2025-01-09"), dates);
+    }
+
+    @Test
+    void archivedRowsKeepCounting() {
+        Routine old = row("1", "2023-06-01", "HKG", "NRT", "10:00:00", "10:20:00", "E1");
+        Routine recent = row("2", "2025-01-02", "HKG", "NRT", "10:00:00", null, "E1");
+
+        RoutineAggregates aggregates = recomputed(old, recent);
+        aggregates.onRoutineChanged(RoutineChangedEvent.archived("1"));
+
+        // no eviction by age: a day more than MAX_DAYS back is still there when asked for
+        assertSameAggregates(recomputed(old, recent), aggregates);
+        LocalDate day = LocalDate.parse("2023-06-01");
+        assertTrue(day.plusDays(RoutineAggregates.MAX_DAYS).isBefore(LAST));
+        assertEquals(1, aggregates.days(day, day).size());
+        assertEquals(2, aggregates.summary().get("totalFlights"));
+    }
+
+    @Test
+    void daysOnlyCoverTheWindowAskedFor() {
+        RoutineAggregates aggregates = recomputed(
+                row("1", "2024-12-31", "HKG", "NRT", null, null, "E1"),
+                row("2", "2025-01-15", "HKG", "NRT", null, null, "E1"),
+                row("3", "2025-02-01", "HKG", "NRT", null, null, "E1"));
+
+        assertEquals(List.of("2025-01-15"), aggregates.days(FIRST, LAST).stream().map(d -> d.get("date")).toList());
+        assertEquals(3, aggregates.summary().get("totalFlights"));
+    }
+
+    @Test
+    void reloadKeepsServingThePreviousTotals() {
+        RoutineAggregates aggregates = recomputed(row("1", "2025-01-02", "HKG", "NRT", null, null, "E1"));
+        // no database here: the rebuild fails and the previous totals stay in place
+        aggregates.onReload(new RoutineReloadEvent("test"));
+
+        assertTrue(aggregates.isReady());
+        assertEquals(1, aggregates.summary().get("totalFlights"));
+    }
+}
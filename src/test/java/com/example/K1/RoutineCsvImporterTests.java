@@ -0,0 +1,64 @@
+package com.example.K1;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The batched INSERT fallback against the embedded H2 database; bulk copy needs SQL Server
+class RoutineCsvImporterTests {
+
+    private static final String HEADER = "JobID,Date,SN,Flight,From,To,STA,ETA,ATA,Remarks,StaffInCharge,Supervisor\n";
+
+    private final DataSource dataSource = SyntheticFlightData.embeddedDatabase("csv-import");
+    private final JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+    private final List<Object> events = new ArrayList<>();
+
+    private RoutineCsvImporter importer() {
+        SqlMetrics sqlMetrics = new SqlMetrics();
+        ReflectionTestUtils.setField(sqlMetrics, "registry", new SimpleMeterRegistry());
+        RoutineCsvImporter importer = new RoutineCsvImporter();
+        ReflectionTestUtils.setField(importer, "jdbcTemplate", jdbc);
+        ReflectionTestUtils.setField(importer, "transactionTemplate", new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+        ReflectionTestUtils.setField(importer, "eventPublisher", (ApplicationEventPublisher) events::add);
+        ReflectionTestUtils.setField(importer, "sqlMetrics", sqlMetrics);
+        ReflectionTestUtils.setField(importer, "chunkSize", 2);
+        ReflectionTestUtils.setField(importer, "bulkCopy", "auto");
+        return importer;
+    }
+
+    @Test
+    void importsNewRowsSkipsDuplicatesAndBlankLines(@TempDir Path dir) throws Exception {
+        jdbc.update("DELETE FROM Routine");
+        Path csv = dir.resolve("routine.csv");
+        Files.writeString(csv, HEADER
+                + ",2025-01-02,SN1,CX1,HKG,NRT,10:00:00,10:05:00,,,E00001,S1\n"
+                + "\n"
+                + ",2025-01-02,SN2,CX2,NRT,HKG,11:00:00,,,\"late, crew\",E00002,S1\n"
+                + ",,,,,,,,,,,\n"
+                + ",2025-01-02,SN1,CX1,HKG,NRT,10:00:00,10:05:00,,,E00001,S1\n"
+                + "\n", StandardCharsets.UTF_8);
+
+        ImportReport report = importer().importCsv(csv, RoutineExcelImporter.Progress.NONE);
+
+        assertEquals(2, report.successCount());
+        assertEquals(1, report.duplicateCount());
+        assertEquals(6, report.errors().get(0).get("row")); // record number, header = 1
+        assertEquals(2, jdbc.queryForObject("SELECT COUNT(*) FROM Routine", Integer.class));
+        assertEquals("late, crew", jdbc.queryForObject("SELECT Remarks FROM Routine WHERE SN = 'SN2'", String.class));
+        assertEquals(2, events.stream().filter(e -> e instanceof RoutineChangedEvent).count());
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.K1;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoutineCursorTests {
+
+    @Test
+    void roundTripsValueWithNewlines() {
+        RoutineCursor cursor = new RoutineCursor(RoutineSortField.REMARKS, "late\nbaggage", "job-1");
+        RoutineCursor decoded = RoutineCursor.decode(cursor.encode());
+        assertNotNull(decoded);
+        assertEquals(RoutineSortField.REMARKS, decoded.sortField());
+        assertEquals("late\nbaggage", decoded.sortValue());
+        assertEquals("job-1", decoded.jobId());
+    }
+
+    @Test
+    void roundTripsNullSortValue() {
+        RoutineCursor decoded = RoutineCursor.decode(new RoutineCursor(RoutineSortField.ATA, null, "job-2").encode());
+        assertNotNull(decoded);
+        assertNull(decoded.sortValue());
+        assertEquals("job-2", decoded.jobId());
+    }
+
+    @Test
+    void rejectsGarbage() {
+        assertNull(RoutineCursor.decode("not a cursor"));
+        assertNull(RoutineCursor.decode(""));
+    }
+
+    @Test
+    void keysetPredicateFollowsSortDirection() {
+        RoutineCursor cursor = new RoutineCursor(RoutineSortField.FROM, "HKG", "job-3");
+        String asc = new RoutineQuery().sort(RoutineSortField.FROM, true).after(cursor).limit(11).sql();
+        assertTrue(asc.contains("([From] > ? OR ([From] = ? AND JobID > ?))"));
+        assertTrue(asc.endsWith("ORDER BY [From] ASC, JobID ASC OFFSET 0 ROWS FETCH NEXT 11 ROWS ONLY"));
+
+        String desc = new RoutineQuery().sort(RoutineSortField.FROM, false).after(cursor).sql();
+        assertTrue(desc.contains("[From] < ? OR ([From] = ? AND JobID < ?) OR [From] IS NULL"));
+    }
+}
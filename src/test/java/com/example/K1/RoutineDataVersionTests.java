@@ -0,0 +1,32 @@
+package com.example.K1;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoutineDataVersionTests {
+
+    @Test
+    void etagIsStableUntilRoutineChanges() {
+        RoutineDataVersion version = new RoutineDataVersion();
+        String etag = version.etag("list", "E00001", null, "Ticket_Date", "desc");
+        assertEquals(etag, version.etag("list", "E00001", null, "Ticket_Date", "desc"));
+
+        version.onRoutineChanged(RoutineChangedEvent.deleted("job-1", "E00001"));
+        assertNotEquals(etag, version.etag("list", "E00001", null, "Ticket_Date", "desc"));
+        assertEquals(1, version.current());
+    }
+
+    @Test
+    void etagDependsOnParameters() {
+        RoutineDataVersion version = new RoutineDataVersion();
+        assertNotEquals(version.etag("list", "*", "HKG"), version.etag("list", "E00001", "HKG"));
+        assertNotEquals(version.etag("list", "*", "HKG"), version.etag("list", "*", "TPE"));
+    }
+
+    @Test
+    void etagIsWeakAndQuoted() {
+        String etag = new RoutineDataVersion().etag("xlsx", "*");
+        assertTrue(etag.startsWith("W/\"") && etag.endsWith("\""));
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.K1;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoutineDateRangeTests {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 10);
+
+    @Test
+    void defaultsToRecentDaysOpenEnded() {
+        RoutineDateRange range = RoutineDateRange.fromRequest(null, null, 7, TODAY);
+        assertEquals(new RoutineDateRange(LocalDate.of(2025, 3, 3), null), range);
+        assertTrue(range.contains("2025-03-03"));
+        assertTrue(range.contains("2025-04-01"));
+        assertFalse(range.contains("2025-03-02"));
+        assertTrue(range.contains(null));
+    }
+
+    @Test
+    void defaultWindowEndsAtAnEarlierDateTo() {
+        assertEquals(new RoutineDateRange(LocalDate.of(2025, 2, 22), LocalDate.of(2025, 3, 1)),
+                RoutineDateRange.fromRequest(null, "2025-03-01", 7, TODAY));
+        assertEquals(new RoutineDateRange(LocalDate.of(2025, 3, 3), LocalDate.of(2025, 4, 1)),
+                RoutineDateRange.fromRequest("", "2025-04-01", 7, TODAY));
+    }
+
+    @Test
+    void rejectsUnreadableOrReversedRange() {
+        assertNull(RoutineDateRange.fromRequest("10/03/2025", null, 7, TODAY));
+        assertNull(RoutineDateRange.fromRequest("2025-03-10", "2025-03-01", 7, TODAY));
+    }
+
+    @Test
+    void reachesArchiveOnlyWhenStartingOnOrBeforeArchivedDay() {
+        RoutineDateRange range = RoutineDateRange.fromRequest("2024-12-01", "2024-12-31", 7, TODAY);
+        assertTrue(range.startsOnOrBefore(LocalDate.of(2024, 12, 1)));
+        assertFalse(range.startsOnOrBefore(LocalDate.of(2024, 11, 30)));
+        assertFalse(RoutineDateRange.ALL.startsOnOrBefore(LocalDate.of(2000, 1, 1)));
+    }
+
+    @Test
+    void archiveReadsUnionBothTables() {
+        RoutineDateRange range = new RoutineDateRange(LocalDate.of(2024, 1, 1), null);
+        RoutineQuery hot = new RoutineQuery().dateRange(range, false);
+        assertTrue(hot.sql().contains("FROM Routine WHERE 1=1 AND (Ticket_Date IS NULL OR (1=1 AND Ticket_Date >= ?))"));
+        assertEquals(1, hot.params().length);
+
+        String all = new RoutineQuery().dateRange(range, true).sql();
+        assertTrue(all.contains("UNION ALL SELECT " + RoutineQuery.COLUMNS + " FROM RoutineArchive) AS RoutineAll WHERE"));
+    }
+}
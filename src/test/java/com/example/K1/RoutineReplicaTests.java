@@ -0,0 +1,51 @@
+package com.example.K1;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoutineReplicaTests {
+
+    private static Routine row(String jobId, String flight) {
+        return new Routine(jobId, "2025-01-02", null, flight, "HKG", "NRT", null, null, null, null, "E1", null);
+    }
+
+    @Test
+    void orderPutsNullsFirstThenComparesIgnoringCase() {
+        // values differing only in case are equal, as in SQL Server; JobID alone breaks the tie
+        List<Routine> rows = new ArrayList<>(List.of(row("4", "cx450"), row("1", "CX451"), row("2", null), row("3", "CX450")));
+        rows.sort(RoutineReplica.order(RoutineSortField.FLIGHT));
+        assertEquals(List.of("2", "3", "4", "1"), rows.stream().map(Routine::jobId).toList());
+    }
+
+    @Test
+    void adminWindowReadsOnlyTheRowsOfTheWindow() {
+        RoutineReplica replica = new RoutineReplica();
+        ReflectionTestUtils.setField(replica, "enabled", true);
+        ReflectionTestUtils.setField(replica, "ready", true);
+        String[] dates = {"2025-01-01", "2025-01-05", "2025-01-07", "2025-01-08", null};
+        for (int i = 0; i < dates.length; i++) {
+            replica.onRoutineChanged(RoutineChangedEvent.saved(
+                    new Routine("job-" + i, dates[i], null, "CX" + (500 - i), "HKG", "NRT", null, null, null, null, "E1", null)));
+        }
+        RoutineDateRange range = new RoutineDateRange(LocalDate.of(2025, 1, 5), LocalDate.of(2025, 1, 7));
+        List<Routine> rows = replica.query(null, null, range, RoutineSortField.FLIGHT, true, null, 0);
+        assertEquals(List.of("job-4", "job-2", "job-1"), rows.stream().map(Routine::jobId).toList());
+
+        RoutineCursor after = new RoutineCursor(RoutineSortField.FLIGHT, "CX496", "job-4");
+        rows = replica.query(null, null, range, RoutineSortField.FLIGHT, true, after, 1);
+        assertEquals(List.of("job-2"), rows.stream().map(Routine::jobId).toList());
+    }
+
+    @Test
+    void jobIdBreaksTiesBetweenEqualValues() {
+        List<Routine> rows = new ArrayList<>(List.of(row("b", "CX450"), row("a", "CX450")));
+        rows.sort(RoutineReplica.order(RoutineSortField.FLIGHT));
+        assertEquals(List.of("a", "b"), rows.stream().map(Routine::jobId).toList());
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.K1;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoutineValuesTests {
+
+    @Test
+    void readsTheTimeShapesSeenInUploads() {
+        assertEquals(8 * 3600, RoutineValues.secondOfDay("8"));
+        assertEquals(8 * 3600 + 5 * 60, RoutineValues.secondOfDay("8:05"));
+        assertEquals(8 * 3600 + 5 * 60, RoutineValues.secondOfDay(" 08:5 "));
+        assertEquals(23 * 3600 + 59 * 60 + 59, RoutineValues.secondOfDay("23:59:59"));
+        assertEquals(12 * 3600, RoutineValues.secondOfDay("0.5"));
+    }
+
+    @Test
+    void rejectsTimesWithoutThrowing() {
+        assertEquals(RoutineValues.INVALID, RoutineValues.secondOfDay("24:00"));
+        assertEquals(RoutineValues.INVALID, RoutineValues.secondOfDay("8:60"));
+        assertEquals(RoutineValues.INVALID, RoutineValues.secondOfDay("1:2:3:4"));
+        assertEquals(RoutineValues.INVALID, RoutineValues.secondOfDay("08h00"));
+        assertEquals(RoutineValues.INVALID, RoutineValues.secondOfDay(""));
+        assertNull(RoutineValues.parseTime(null));
+    }
+
+    @Test
+    void convertsExcelTimeFractions() {
+        assertEquals(6 * 3600, RoutineValues.excelTimeSeconds(0.25));
+        assertEquals(6 * 3600, RoutineValues.excelTimeSeconds(45306.25)); // date + time
+        assertEquals(0, RoutineValues.excelTimeSeconds(0.999999999));
+        assertEquals("06:00:00", RoutineValues.formatTime(RoutineValues.excelTimeSeconds(0.25)));
+    }
+
+    @Test
+    void readsIsoDates() {
+        assertEquals(20240229, RoutineValues.packedDate("2024-02-29"));
+        assertEquals(20240105, RoutineValues.packedDate("2024-1-5"));
+        assertEquals(RoutineValues.INVALID, RoutineValues.packedDate("2023-02-29"));
+        assertEquals(RoutineValues.INVALID, RoutineValues.packedDate("15/01/2024"));
+        assertEquals(java.sql.Date.valueOf("2024-01-15"), RoutineValues.parseDate("2024-01-15"));
+    }
+
+    @Test
+    void staffKeyIgnoresCaseAndTrailingBlanks() {
+        assertEquals(RoutineValues.staffKey("e100"), RoutineValues.staffKey("E100  "));
+        assertNull(RoutineValues.staffKey(null));
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.K1;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Deterministic synthetic flight data for benchmarks and load tests: an embedded H2
+ * database in SQL Server compatibility mode with the application's schema, seeded with
+ * Routine and EmployeeInfo rows, plus matching .xlsx uploads.
+ */
+public final class SyntheticFlightData {
+
+    static final String[] STATIONS = {"HKG", "TPE", "NRT", "HND", "ICN", "SIN", "BKK", "MNL", "SYD", "LHR", "CDG", "FRA", "JFK", "LAX", "YVR", "DXB"};
+    static final String[] REMARKS = {"", "", "", "On time", "Late inbound", "Gate change", "Crew swap", "Weather hold", "Tech check", "Bulk cargo"};
+    static final int SUPERVISORS = 40;
+
+    private final Random random;
+    private final LocalDate firstDay;
+    private final int days;
+    private final int staffCount;
+
+    // staffCount employees share rows spread over the given number of days up to today
+    public SyntheticFlightData(long seed, int staffCount, int days) {
+        this.random = new Random(seed);
+        this.staffCount = staffCount;
+        this.days = days;
+        this.firstDay = LocalDate.now().minusDays(days - 1);
+    }
+
+    // JDBC URL of the named in-memory database; it lives until the JVM exits
+    public static String embeddedUrl(String name) {
+        return "jdbc:h2:mem:" + name + ";MODE=MSSQLServer;DATABASE_TO_UPPER=FALSE;DB_CLOSE_DELAY=-1";
+    }
+
+    public static DataSource embeddedDatabase(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(embeddedUrl(name), "sa", "");
+        dataSource.setDriverClassName("org.h2.Driver");
+        new ResourceDatabasePopulator(new ClassPathResource("k1-schema.sql")).execute(dataSource);
+        return dataSource;
+    }
+
+    public static String staffId(int i) {
+        return String.format("E%05d", i);
+    }
+
+    // Employee E00000 is the Admin; everyone else is Staff. Password = employee id.
+    public void seedEmployees(JdbcTemplate jdbc) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < staffCount; i++) {
+            String id = staffId(i);
+            rows.add(new Object[]{id, "Employee " + i, id, i == 0 ? "Admin" : "Staff"});
+        }
+        jdbc.batchUpdate("INSERT INTO EmployeeInfo (Employee_ID, Name, Encry_Pw, Permission) VALUES (?, ?, ?, ?)", rows);
+    }
+
+    public void seedRoutines(JdbcTemplate jdbc, int count) {
+        List<Object[]> batch = new ArrayList<>(5000);
+        for (int i = 0; i < count; i++) {
+            batch.add(nextInsertArgs());
+            if (batch.size() == 5000) {
+                jdbc.batchUpdate(RoutineExcelImporter.INSERT_SQL, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbc.batchUpdate(RoutineExcelImporter.INSERT_SQL, batch);
+        }
+    }
+
+    // One Routine row in RoutineExcelImporter.INSERT_SQL argument order
+    public Object[] nextInsertArgs() {
+        int from = random.nextInt(STATIONS.length);
+        int to = (from + 1 + random.nextInt(STATIONS.length - 1)) % STATIONS.length;
+        int sta = 5 * 60 + random.nextInt(18 * 60); // minutes after midnight, 05:00-23:00
+        int eta = sta + random.nextInt(31) - 10;
+        int delay = random.nextInt(10) < 7 ? random.nextInt(16) - 5 : random.nextInt(180);
+        boolean landed = random.nextInt(10) < 8;
+        return new Object[]{
+                UUID.randomUUID().toString(),
+                Date.valueOf(firstDay.plusDays(random.nextInt(days))),
+                "SN" + (100000 + random.nextInt(900000)),
+                "CX" + (100 + random.nextInt(900)),
+                STATIONS[from],
+                STATIONS[to],
+                time(sta),
+                time(eta),
+                landed ? time(eta + delay) : null,
+                REMARKS[random.nextInt(REMARKS.length)],
+                staffId(1 + random.nextInt(Math.max(1, staffCount - 1))),
+                "S" + random.nextInt(SUPERVISORS)
+        };
+    }
+
+    public Routine nextRoutine() {
+        return Routine.fromInsertArgs(nextInsertArgs());
+    }
+
+    // An upload in the export/import column layout, streamed so large files stay cheap to build
+    public Path writeWorkbook(int rows) throws IOException {
+        Path file = Files.createTempFile("synthetic-routine-", ".xlsx");
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(200); OutputStream out = Files.newOutputStream(file)) {
+            Sheet sheet = workbook.createSheet("Routine");
+            Row header = sheet.createRow(0);
+            for (int i = 0; i < RoutineExcelExporter.COLUMNS.length; i++) {
+                header.createCell(i).setCellValue(RoutineExcelExporter.COLUMNS[i]);
+            }
+            for (int r = 1; r <= rows; r++) {
+                Object[] args = nextInsertArgs();
+                Row row = sheet.createRow(r);
+                for (int i = 0; i < args.length; i++) {
+                    if (args[i] != null) {
+                        row.createCell(i).setCellValue(args[i].toString());
+                    }
+                }
+            }
+            workbook.write(out);
+            workbook.dispose();
+        }
+        return file;
+    }
+
+    private static Time time(int minutes) {
+        int m = Math.floorMod(minutes, 24 * 60);
+        return Time.valueOf(String.format("%02d:%02d:00", m / 60, m % 60));
+    }
+}
@@ -0,0 +1,45 @@
+-- Routine and EmployeeInfo as the application expects them, for the embedded
+-- (H2, MODE=MSSQLServer) database used by benchmarks and load tests
+CREATE TABLE IF NOT EXISTS EmployeeInfo (
+    Employee_ID VARCHAR(50) PRIMARY KEY,
+    Name VARCHAR(100),
+    Encry_Pw VARCHAR(100),
+    Permission VARCHAR(20)
+);
+
+CREATE TABLE IF NOT EXISTS Routine (
+    JobID VARCHAR(36) PRIMARY KEY,
+    Ticket_Date DATE,
+    SN VARCHAR(50),
+    Flight VARCHAR(20),
+    [From] VARCHAR(10),
+    [To] VARCHAR(10),
+    STA TIME,
+    ETA TIME,
+    ATA TIME,
+    Remarks VARCHAR(500),
+    StaffInCharge VARCHAR(50),
+    Supervisor VARCHAR(50)
+);
+
+CREATE INDEX IF NOT EXISTS IX_Routine_Date ON Routine (Ticket_Date, JobID);
+CREATE INDEX IF NOT EXISTS IX_Routine_Staff ON Routine (StaffInCharge, Ticket_Date);
+
+-- Cold history moved out of Routine by RoutineArchiver
+CREATE TABLE IF NOT EXISTS RoutineArchive (
+    JobID VARCHAR(36) PRIMARY KEY,
+    Ticket_Date DATE,
+    SN VARCHAR(50),
+    Flight VARCHAR(20),
+    [From] VARCHAR(10),
+    [To] VARCHAR(10),
+    STA TIME,
+    ETA TIME,
+    ATA TIME,
+    Remarks VARCHAR(500),
+    StaffInCharge VARCHAR(50),
+    Supervisor VARCHAR(50)
+);
+
+CREATE INDEX IF NOT EXISTS IX_RoutineArchive_Date ON RoutineArchive (Ticket_Date, JobID);
+CREATE INDEX IF NOT EXISTS IX_RoutineArchive_Staff ON RoutineArchive (StaffInCharge, Ticket_Date);